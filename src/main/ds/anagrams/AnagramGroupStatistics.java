@@ -0,0 +1,309 @@
+package main.ds.anagrams;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * AnagramGroupStatistics keeps windowed, time-decayed statistics about anagram
+ * groups and an incrementally maintained top-K of the largest groups.
+ *
+ * <p>{@link CaffeineAnagramGrouper#printStats()} and the {@link LongAdder} counters in
+ * {@link ConcurrentLRUAnagramGrouper} only report lifetime totals, and
+ * {@code currentGroups()}/{@code snapshot()} copy every group. This class is fed one
+ * event per arrival by the grouper and answers dashboard queries without touching
+ * the group map at all.</p>
+ *
+ * <h2>Windows</h2>
+ * Time is cut into buckets of {@code hopMillis}. A window spans
+ * {@code windowMillis / hopMillis} consecutive buckets and is kept in a ring of
+ * {@code bucketsPerWindow + 1} slots (the extra slot is the bucket being filled).
+ * <ul>
+ *   <li><b>Tumbling</b>: {@code hop == window}; each window is reported exactly once.</li>
+ *   <li><b>Hopping</b>: {@code hop < window}; windows overlap and advance by one hop.</li>
+ * </ul>
+ * Each bucket records arrivals, newly created groups and the largest group size observed.
+ *
+ * <h2>Decay</h2>
+ * When a bucket completes, its arrival rate is folded into an exponentially weighted
+ * moving average with a configurable half-life, so {@link #decayedArrivalRate()}
+ * favours recent traffic without storing history.
+ *
+ * <h2>Top-K</h2>
+ * A min-heap of at most K entries ordered by group size. An arrival only takes the
+ * lock when its group is already tracked or grew past the current heap minimum,
+ * so the common path is a volatile read.
+ *
+ * <h2>Complexity</h2>
+ * <ul>
+ *   <li>{@link #recordArrival}: O(1) without the lock, O(K) when the heap changes.</li>
+ *   <li>{@link #lastWindow()}: O(window / hop).</li>
+ *   <li>{@link #topK()}: O(K log K).</li>
+ *   <li>Space: O(window / hop + K), independent of the number of groups.</li>
+ * </ul>
+ */
+public class AnagramGroupStatistics {
+
+    /** One hop worth of counters. Replaced, never reset, when the ring wraps around. */
+    private static final class Bucket {
+        final long index;
+        final LongAdder arrivals = new LongAdder();
+        final LongAdder newGroups = new LongAdder();
+        final LongAccumulator maxGroupSize = new LongAccumulator(Long::max, 0);
+
+        Bucket(long index) {
+            this.index = index;
+        }
+    }
+
+    /** Aggregated view of one window, safe to hand to a dashboard. */
+    public static final class WindowSnapshot {
+        public final long startMillis;
+        public final long endMillis;
+        public final long arrivals;
+        public final long newGroups;
+        public final long maxGroupSize;
+
+        WindowSnapshot(long startMillis, long endMillis, long arrivals, long newGroups, long maxGroupSize) {
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            this.arrivals = arrivals;
+            this.newGroups = newGroups;
+            this.maxGroupSize = maxGroupSize;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[%d, %d) arrivals=%d newGroups=%d maxGroupSize=%d",
+                    startMillis, endMillis, arrivals, newGroups, maxGroupSize);
+        }
+    }
+
+    /** A group tracked by the top-K heap. */
+    public static final class GroupSize {
+        public final String signature;
+        public final String sample;
+        private int size;
+
+        GroupSize(String signature, String sample, int size) {
+            this.signature = signature;
+            this.sample = sample;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public String toString() {
+            return sample + "=" + size;
+        }
+    }
+
+    private final long hopMillis;
+    private final int bucketsPerWindow;
+    private final AtomicReferenceArray<Bucket> ring;
+    private final LongSupplier clock;
+
+    // === Decay ===
+    private final double decayPerBucket;
+    private long lastCompletedIndex = Long.MIN_VALUE;
+    private volatile double decayedRate;
+
+    // === Top-K ===
+    private final int k;
+    private final PriorityQueue<GroupSize> topHeap = new PriorityQueue<>(Comparator.comparingInt(GroupSize::size));
+    private final ConcurrentHashMap<String, GroupSize> tracked = new ConcurrentHashMap<>();
+    private volatile int heapThreshold;
+
+    /**
+     * @param windowMillis    window length; must be a multiple of {@code hopMillis}
+     * @param hopMillis       distance between window starts (equal to the window for tumbling)
+     * @param halfLifeMillis  half-life of the decayed arrival rate
+     * @param k               number of largest groups to track
+     * @param clock           millisecond time source
+     */
+    public AnagramGroupStatistics(long windowMillis, long hopMillis, long halfLifeMillis, int k, LongSupplier clock) {
+        if (hopMillis <= 0 || windowMillis < hopMillis || windowMillis % hopMillis != 0) {
+            throw new IllegalArgumentException("Window must be a positive multiple of the hop");
+        }
+        if (k <= 0 || halfLifeMillis <= 0) throw new IllegalArgumentException("k and half-life must be positive");
+        this.hopMillis = hopMillis;
+        this.bucketsPerWindow = (int) (windowMillis / hopMillis);
+        this.ring = new AtomicReferenceArray<>(bucketsPerWindow + 1);
+        this.decayPerBucket = Math.pow(0.5, (double) hopMillis / halfLifeMillis);
+        this.k = k;
+        this.clock = clock;
+    }
+
+    /** Non-overlapping windows of {@code windowMillis}. */
+    public static AnagramGroupStatistics tumbling(long windowMillis, int k) {
+        return new AnagramGroupStatistics(windowMillis, windowMillis, windowMillis, k, System::currentTimeMillis);
+    }
+
+    /** Overlapping windows of {@code windowMillis} that advance every {@code hopMillis}. */
+    public static AnagramGroupStatistics hopping(long windowMillis, long hopMillis, int k) {
+        return new AnagramGroupStatistics(windowMillis, hopMillis, windowMillis, k, System::currentTimeMillis);
+    }
+
+    /**
+     * Records one word arriving in a group.
+     *
+     * @param signature group key
+     * @param word      the arriving word, kept as a readable sample for new top-K entries
+     * @param groupSize size of the group after this arrival
+     * @param newGroup  whether this arrival created the group
+     */
+    public void recordArrival(String signature, String word, int groupSize, boolean newGroup) {
+        Bucket bucket = currentBucket();
+        bucket.arrivals.increment();
+        if (newGroup) bucket.newGroups.increment();
+        bucket.maxGroupSize.accumulate(groupSize);
+
+        if (groupSize > heapThreshold || tracked.containsKey(signature)) {
+            updateTopK(signature, word, groupSize);
+        }
+    }
+
+    /**
+     * Drops an evicted group from the top-K. Smaller groups re-enter on their next arrival.
+     *
+     * @param signature key of the evicted group
+     */
+    public synchronized void onGroupEvicted(String signature) {
+        GroupSize entry = tracked.remove(signature);
+        if (entry != null) {
+            topHeap.remove(entry);
+            heapThreshold = 0;
+        }
+    }
+
+    private synchronized void updateTopK(String signature, String word, int groupSize) {
+        GroupSize entry = tracked.get(signature);
+        if (entry != null) {
+            if (groupSize > entry.size) {
+                topHeap.remove(entry); // O(K): sizes only grow, re-insert to restore heap order
+                entry.size = groupSize;
+                topHeap.add(entry);
+            }
+        } else if (topHeap.size() < k) {
+            entry = new GroupSize(signature, word, groupSize);
+            topHeap.add(entry);
+            tracked.put(signature, entry);
+        } else if (groupSize > topHeap.peek().size) {
+            tracked.remove(topHeap.poll().signature);
+            entry = new GroupSize(signature, word, groupSize);
+            topHeap.add(entry);
+            tracked.put(signature, entry);
+        }
+        heapThreshold = topHeap.size() < k ? 0 : topHeap.peek().size;
+    }
+
+    /**
+     * Returns the bucket for the current hop, installing a fresh one when the ring wraps.
+     */
+    private Bucket currentBucket() {
+        long index = clock.getAsLong() / hopMillis;
+        int slot = (int) (index % ring.length());
+        Bucket bucket = ring.get(slot);
+        if (bucket != null && bucket.index == index) return bucket;
+
+        synchronized (this) {
+            bucket = ring.get(slot);
+            if (bucket == null || bucket.index != index) {
+                completeBucketsBefore(index);
+                bucket = new Bucket(index);
+                ring.set(slot, bucket);
+            }
+            return bucket;
+        }
+    }
+
+    /**
+     * Folds every completed bucket before {@code index} into the decayed rate.
+     * Only the bucket installed at the previous rotation can hold arrivals; the
+     * hops after it were idle and decay the rate towards zero in one step.
+     */
+    private void completeBucketsBefore(long index) {
+        if (lastCompletedIndex == Long.MIN_VALUE || index <= lastCompletedIndex + 1) {
+            lastCompletedIndex = Math.max(lastCompletedIndex, index - 1);
+            return;
+        }
+        long previous = lastCompletedIndex + 1;
+        Bucket done = ring.get((int) (previous % ring.length()));
+        double perSecond = done != null && done.index == previous ? done.arrivals.sum() * 1000.0 / hopMillis : 0;
+        double rate = decayPerBucket * decayedRate + (1 - decayPerBucket) * perSecond;
+        decayedRate = rate * Math.pow(decayPerBucket, index - previous - 1);
+        lastCompletedIndex = index - 1;
+    }
+
+    /**
+     * Aggregates the most recent complete window, i.e. the {@code window / hop}
+     * buckets that end at the latest hop boundary.
+     *
+     * @return window aggregate; buckets with no arrivals contribute zeros
+     */
+    public WindowSnapshot lastWindow() {
+        long end = clock.getAsLong() / hopMillis;
+        long arrivals = 0, newGroups = 0, maxGroupSize = 0;
+        for (long i = end - bucketsPerWindow; i < end; i++) {
+            Bucket bucket = ring.get((int) Math.floorMod(i, (long) ring.length()));
+            if (bucket != null && bucket.index == i) {
+                arrivals += bucket.arrivals.sum();
+                newGroups += bucket.newGroups.sum();
+                maxGroupSize = Math.max(maxGroupSize, bucket.maxGroupSize.get());
+            }
+        }
+        return new WindowSnapshot((end - bucketsPerWindow) * hopMillis, end * hopMillis,
+                arrivals, newGroups, maxGroupSize);
+    }
+
+    /**
+     * @return exponentially decayed arrivals per second over completed hops
+     */
+    public double decayedArrivalRate() {
+        currentBucket(); // lets an idle period decay the rate before it is read
+        return decayedRate;
+    }
+
+    /**
+     * @return the tracked largest groups, largest first
+     */
+    public synchronized List<GroupSize> topK() {
+        List<GroupSize> result = new ArrayList<>(topHeap);
+        result.sort(Comparator.comparingInt(GroupSize::size).reversed());
+        return result;
+    }
+
+    public void printStats() {
+        System.out.printf("[Window] %s | decayed rate = %.1f/s | top-%d = %s%n",
+                lastWindow(), decayedArrivalRate(), k, topK());
+    }
+
+    // === Demo with a manual clock ===
+    public static void main(String[] args) {
+        long[] now = {0};
+        AnagramGroupStatistics stats = new AnagramGroupStatistics(3_000, 1_000, 2_000, 2, () -> now[0]);
+        Map<String, Integer> sizes = new HashMap<>();
+
+        String[][] perSecond = {
+                {"listen", "silent", "hello"},
+                {"enlist", "world", "dlrow", "ohlle"},
+                {"tinsel", "abc"},
+                {"cab", "bac", "acb", "bca"},
+        };
+        for (String[] second : perSecond) {
+            for (String word : second) {
+                String key = BackpressureAnagramGrouper.signature(word);
+                int size = sizes.merge(key, 1, Integer::sum);
+                stats.recordArrival(key, word, size, size == 1);
+            }
+            now[0] += 1_000;
+            stats.printStats();
+        }
+    }
+}
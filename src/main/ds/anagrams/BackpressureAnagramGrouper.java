@@ -0,0 +1,361 @@
+package main.ds.anagrams;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BackpressureAnagramGrouper is a bounded, backpressure-aware variant of
+ * {@link ReactiveAnagramGrouper} built on {@link java.util.concurrent.Flow}.
+ *
+ * <p>{@link ReactiveAnagramGrouper#onWord(String)} hands every word to an unbounded
+ * executor queue, so a burst of input grows the heap until the JVM runs out of memory.
+ * Here words are batched on the producer side and published through a
+ * {@link SubmissionPublisher} whose per-subscriber buffer is bounded. The grouping
+ * subscriber only requests a fixed number of batches at a time, and the producer
+ * reacts to a full buffer according to an {@link OverflowPolicy}.</p>
+ *
+ * <h2>Pipeline</h2>
+ * <pre>
+ *   onWord() → batch (batchSize words) → SubmissionPublisher (bounded buffer)
+ *            → GroupingSubscriber (request(prefetch)) → groups
+ * </pre>
+ *
+ * <h2>Overflow Policies</h2>
+ * <ul>
+ *   <li><b>BLOCK</b>: the producer waits until the subscriber frees buffer space. Nothing is lost.</li>
+ *   <li><b>DROP</b>: the batch is discarded and counted in {@link #getDroppedWords()}.</li>
+ *   <li><b>BUFFER</b>: the batch spills into a bounded overflow queue that the subscriber drains
+ *       between signals; only when that queue is also full is the batch dropped.</li>
+ * </ul>
+ *
+ * <h2>Metrics</h2>
+ * <ul>
+ *   <li><b>Lag</b>: words accepted by {@link #onWord(String)} but not yet grouped.</li>
+ *   <li><b>Queue depth</b>: batches waiting in the publisher buffer plus the overflow queue.</li>
+ *   <li><b>Words/sec</b>: grouping rate sampled over the last metrics interval.</li>
+ * </ul>
+ *
+ * <h2>Complexity</h2>
+ * <ul>
+ *   <li>Per word: O(L) for the signature, O(1) amortized to append into a group.</li>
+ *   <li>Memory held by the pipeline: O(bufferCapacity * batchSize + overflowCapacity * batchSize) words,
+ *       independent of the input rate.</li>
+ * </ul>
+ *
+ * <h2>Thread Safety</h2>
+ * {@link #onWord(String)} may be called from any number of producer threads. Grouping
+ * happens on a single subscriber thread, so groups need no further locking;
+ * readers see a consistent {@link ConcurrentHashMap} view.
+ */
+public class BackpressureAnagramGrouper implements AutoCloseable {
+
+    /** How the producer reacts when the subscriber buffer is full. */
+    public enum OverflowPolicy { BLOCK, DROP, BUFFER }
+
+    private final int maxGroups;
+    private final int batchSize;
+    private final int prefetch;
+    private final OverflowPolicy policy;
+
+    private final ExecutorService deliveryExecutor = Executors.newSingleThreadExecutor(daemon("anagram-delivery"));
+    private final SubmissionPublisher<List<String>> publisher;
+    private final BlockingQueue<List<String>> overflow;
+
+    // === Grouping state (written only by the subscriber thread) ===
+    private final ConcurrentHashMap<String, ConcurrentLinkedQueue<String>> groups = new ConcurrentHashMap<>();
+    private final ArrayDeque<String> evictionQueue = new ArrayDeque<>();
+
+    // === Producer-side batch ===
+    private final Object batchLock = new Object();
+    private List<String> currentBatch;
+
+    // === Metrics ===
+    private final LongAdder acceptedWords = new LongAdder();
+    private final LongAdder processedWords = new LongAdder();
+    private final LongAdder droppedWords = new LongAdder();
+    private final LongAdder wordsThisInterval = new LongAdder();
+    private volatile long wordsPerSecond;
+    private final ScheduledExecutorService metricsScheduler =
+            Executors.newSingleThreadScheduledExecutor(daemon("anagram-metrics"));
+
+    /* Daemon threads, so a grouper that is never closed does not keep the JVM alive. */
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Creates a pipeline with sensible defaults: 1000 groups, batches of 256 words,
+     * a 64 batch buffer, prefetch of 16 batches and the BLOCK policy.
+     */
+    public BackpressureAnagramGrouper() {
+        this(1000, 256, 64, 16, 64, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * @param maxGroups        maximum number of distinct groups retained (FIFO eviction)
+     * @param batchSize        words carried per published signal
+     * @param bufferCapacity   maximum batches buffered per subscriber (rounded up to a power of two)
+     * @param prefetch         maximum batches the subscriber has requested but not yet received
+     * @param overflowCapacity batches held in the spill queue for {@link OverflowPolicy#BUFFER}
+     * @param policy           reaction to a full subscriber buffer
+     */
+    public BackpressureAnagramGrouper(int maxGroups, int batchSize, int bufferCapacity,
+                                      int prefetch, int overflowCapacity, OverflowPolicy policy) {
+        if (maxGroups <= 0 || batchSize <= 0 || bufferCapacity <= 0 || prefetch <= 0 || overflowCapacity <= 0) {
+            throw new IllegalArgumentException("All capacities must be positive");
+        }
+        this.maxGroups = maxGroups;
+        this.batchSize = batchSize;
+        this.prefetch = prefetch;
+        this.policy = Objects.requireNonNull(policy);
+        this.currentBatch = new ArrayList<>(batchSize);
+        this.overflow = new ArrayBlockingQueue<>(overflowCapacity);
+        this.publisher = new SubmissionPublisher<>(deliveryExecutor, bufferCapacity);
+        this.publisher.subscribe(new GroupingSubscriber());
+
+        metricsScheduler.scheduleAtFixedRate(
+                () -> wordsPerSecond = wordsThisInterval.sumThenReset(), 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Accepts a word from a producer. The word is published once its batch is full.
+     *
+     * @param word the incoming word to be grouped
+     */
+    public void onWord(String word) {
+        if (word == null || word.isBlank()) return;
+
+        List<String> full = null;
+        synchronized (batchLock) {
+            currentBatch.add(word);
+            if (currentBatch.size() >= batchSize) {
+                full = currentBatch;
+                currentBatch = new ArrayList<>(batchSize);
+            }
+        }
+        acceptedWords.increment();
+        if (full != null) publish(full);
+    }
+
+    /**
+     * Publishes the partially filled batch, if any. Call at the end of a burst so
+     * trailing words do not wait for the batch to fill up.
+     */
+    public void flush() {
+        List<String> partial;
+        synchronized (batchLock) {
+            if (currentBatch.isEmpty()) return;
+            partial = currentBatch;
+            currentBatch = new ArrayList<>(batchSize);
+        }
+        publish(partial);
+    }
+
+    /**
+     * Hands a batch to the publisher according to the configured overflow policy.
+     */
+    private void publish(List<String> batch) {
+        switch (policy) {
+            case BLOCK -> publisher.submit(batch);
+            case DROP -> publisher.offer(batch, (subscriber, dropped) -> {
+                droppedWords.add(dropped.size());
+                return false; // do not retry
+            });
+            case BUFFER -> publisher.offer(batch, (subscriber, dropped) -> {
+                if (!overflow.offer(dropped)) droppedWords.add(dropped.size());
+                return false;
+            });
+        }
+    }
+
+    /**
+     * Single-threaded consumer that keeps at most {@code prefetch} batches outstanding.
+     */
+    private final class GroupingSubscriber implements Flow.Subscriber<List<String>> {
+        private Flow.Subscription subscription;
+        private int receivedSinceRequest;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(prefetch);
+        }
+
+        @Override
+        public void onNext(List<String> batch) {
+            group(batch);
+
+            // Spilled batches are drained between signals so they never outlive a slow burst.
+            List<String> spilled;
+            while ((spilled = overflow.poll()) != null) {
+                group(spilled);
+            }
+
+            // Replenish demand in halves to avoid a request() call per batch.
+            if (++receivedSinceRequest >= Math.max(1, prefetch / 2)) {
+                subscription.request(receivedSinceRequest);
+                receivedSinceRequest = 0;
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            System.err.println("[Pipeline Error] " + throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            List<String> spilled;
+            while ((spilled = overflow.poll()) != null) {
+                group(spilled);
+            }
+        }
+    }
+
+    /**
+     * Places each word of a batch into its anagram group, evicting the oldest group
+     * once {@code maxGroups} is exceeded.
+     */
+    private void group(List<String> batch) {
+        for (String word : batch) {
+            String key = signature(word);
+            ConcurrentLinkedQueue<String> queue = groups.get(key);
+            if (queue == null) {
+                queue = new ConcurrentLinkedQueue<>();
+                groups.put(key, queue);
+                evictionQueue.add(key);
+                if (groups.size() > maxGroups) {
+                    groups.remove(evictionQueue.poll());
+                }
+            }
+            queue.add(word);
+        }
+        processedWords.add(batch.size());
+        wordsThisInterval.add(batch.size());
+    }
+
+    /**
+     * Computes a frequency signature without regex or boxing.
+     * Non a–z characters (punctuation, digits, accented letters) are ignored.
+     *
+     * @param word input word
+     * @return 26-char key where each char holds the count of one letter
+     */
+    static String signature(String word) {
+        char[] freq = new char[26];
+        for (int i = 0; i < word.length(); i++) {
+            char c = Character.toLowerCase(word.charAt(i));
+            if (c >= 'a' && c <= 'z') freq[c - 'a']++;
+        }
+        return new String(freq);
+    }
+
+    // === Metrics ===
+
+    /** @return words accepted but not yet grouped or dropped */
+    public long getLag() {
+        return acceptedWords.sum() - processedWords.sum() - droppedWords.sum();
+    }
+
+    /** @return batches waiting in the publisher buffer plus the overflow queue */
+    public int getQueueDepth() {
+        return publisher.estimateMaximumLag() + overflow.size();
+    }
+
+    /** @return words grouped during the last one-second interval */
+    public long getWordsPerSecond() {
+        return wordsPerSecond;
+    }
+
+    /** @return words discarded by the DROP or BUFFER policy */
+    public long getDroppedWords() {
+        return droppedWords.sum();
+    }
+
+    /** @return total words grouped so far */
+    public long getProcessedWords() {
+        return processedWords.sum();
+    }
+
+    /** @return number of groups currently retained */
+    public int groupCount() {
+        return groups.size();
+    }
+
+    /**
+     * Returns the members of the group that {@code word} belongs to.
+     *
+     * @param word any member of the group
+     * @return copy of the group, empty if the group is absent or evicted
+     */
+    public List<String> groupOf(String word) {
+        ConcurrentLinkedQueue<String> queue = groups.get(signature(word));
+        return queue == null ? List.of() : new ArrayList<>(queue);
+    }
+
+    public void printMetrics() {
+        System.out.printf("[Metrics] Words/sec = %-9d | Lag = %-8d | QueueDepth = %-4d | Dropped = %-8d | Groups = %d%n",
+                getWordsPerSecond(), getLag(), getQueueDepth(), getDroppedWords(), groupCount());
+    }
+
+    /**
+     * Flushes the pending batch, completes the publisher and waits for the
+     * subscriber to drain. If the caller is interrupted while waiting, close
+     * returns early with the interrupt flag set again.
+     */
+    @Override
+    public void close() {
+        flush();
+        publisher.close();
+        deliveryExecutor.shutdown();
+        metricsScheduler.shutdown();
+        try {
+            deliveryExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // === Demo / Throughput Runner ===
+    public static void main(String[] args) throws Exception {
+        String[] vocabulary = {"listen", "silent", "enlist", "hello", "ohlle", "world", "dlrow", "abc", "cab", "bac"};
+
+        try (BackpressureAnagramGrouper grouper = new BackpressureAnagramGrouper()) {
+            for (String word : vocabulary) grouper.onWord(word);
+            grouper.flush();
+            Thread.sleep(200);
+            System.out.println("Group of 'listen': " + grouper.groupOf("listen"));
+            System.out.println("Group of 'world' : " + grouper.groupOf("world"));
+        }
+
+        // Throughput: 4 producers push 8M words; heap use stays flat because the buffer is bounded.
+        for (OverflowPolicy policy : OverflowPolicy.values()) {
+            int producers = 4, perProducer = 2_000_000;
+            BackpressureAnagramGrouper grouper =
+                    new BackpressureAnagramGrouper(1000, 512, 64, 16, 64, policy);
+            ExecutorService pool = Executors.newFixedThreadPool(producers);
+            long start = System.nanoTime();
+            for (int p = 0; p < producers; p++) {
+                pool.submit(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    for (int i = 0; i < perProducer; i++) {
+                        grouper.onWord(vocabulary[rnd.nextInt(vocabulary.length)]);
+                    }
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+            grouper.printMetrics();
+            grouper.close();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-6s processed=%d dropped=%d -> %.2f M words/sec%n",
+                    policy, grouper.getProcessedWords(), grouper.getDroppedWords(),
+                    grouper.getProcessedWords() / seconds / 1e6);
+        }
+    }
+}
@@ -25,10 +25,16 @@ public class CaffeineAnagramGrouper {
     /** Maximum number of distinct anagram groups retained. */
     private static final int MAX_GROUPS = 1_000;
 
+    /** Windowed arrivals and top-10 largest groups: 1 minute windows hopping every 10 seconds. */
+    private static final AnagramGroupStatistics statistics = AnagramGroupStatistics.hopping(60_000, 10_000, 10);
+
     /** Cache that maps normalized signature → list of words. */
     private static final Cache<String, List<String>> anagramCache = Caffeine.newBuilder()
             .maximumSize(MAX_GROUPS)
             .expireAfterAccess(5, TimeUnit.MINUTES)
+            .removalListener((String key, List<String> group, RemovalCause cause) -> {
+                if (cause.wasEvicted()) statistics.onGroupEvicted(key);
+            })
             .recordStats()
             .build();
 
@@ -58,8 +64,10 @@ public class CaffeineAnagramGrouper {
 
         String key = signature(word);
         anagramCache.asMap().compute(key, (k, list) -> {
-            if (list == null) list = new ArrayList<>();
+            boolean created = list == null;
+            if (created) list = new ArrayList<>();
             list.add(word);
+            statistics.recordArrival(k, word, list.size(), created);
             return list;
         });
     }
@@ -79,6 +87,14 @@ public class CaffeineAnagramGrouper {
      */
     public static void printStats() {
         System.out.println(anagramCache.stats());
+        statistics.printStats();
+    }
+
+    /**
+     * Windowed and top-K statistics. Cheap to poll: never copies the cache.
+     */
+    public static AnagramGroupStatistics statistics() {
+        return statistics;
     }
 
     public static void main(String[] args) throws InterruptedException {
@@ -1,7 +1,10 @@
 package main.ds.anagrams;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
@@ -38,8 +41,28 @@ public class ConcurrentLRUAnagramGrouper {
     /** Maximum number of distinct anagram groups retained in memory. */
     private static final int MAX_GROUPS = 1000;
 
+    /** Word queue of one group; also counts its members because {@link ConcurrentLinkedQueue#size()} is O(n). */
+    private static final class Group implements AnagramCheckpointer.LiveGroup {
+        final ConcurrentLinkedQueue<String> members = new ConcurrentLinkedQueue<>();
+        final long order = groupSequence.incrementAndGet(); // position in eviction order, for checkpoints
+        int count; // only mutated inside groups.compute(), i.e. under the bin lock
+
+        @Override
+        public Collection<String> members() {
+            return members;
+        }
+
+        @Override
+        public long order() {
+            return order;
+        }
+    }
+
+    /** Creation counter that orders groups for eviction across checkpoint/restore. */
+    private static final AtomicLong groupSequence = new AtomicLong();
+
     /** Primary structure: maps anagram signature → queue of words belonging to that group. */
-    private static final ConcurrentHashMap<String, ConcurrentLinkedQueue<String>> groups = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Group> groups = new ConcurrentHashMap<>();
 
     /** FIFO queue to track insertion order for approximate LRU eviction. */
     private static final ConcurrentLinkedQueue<String> evictionQueue = new ConcurrentLinkedQueue<>();
@@ -47,6 +70,12 @@ public class ConcurrentLRUAnagramGrouper {
     /** Atomic metric counter for total words processed. */
     private static final LongAdder totalWordsProcessed = new LongAdder();
 
+    /** Windowed arrivals and top-10 largest groups: 1 minute windows hopping every 10 seconds. */
+    private static final AnagramGroupStatistics statistics = AnagramGroupStatistics.hopping(60_000, 10_000, 10);
+
+    /** Background checkpoint writer; {@code null} until {@link #enableCheckpointing} is called. */
+    private static volatile AnagramCheckpointer checkpointer;
+
     /**
      * Ingests a single word from stream input.
      *
@@ -58,16 +87,19 @@ public class ConcurrentLRUAnagramGrouper {
         String key = signature(word);
 
         // Compute group atomically
-        groups.compute(key, (k, queue) -> {
-            if (queue == null) {
-                queue = new ConcurrentLinkedQueue<>();
+        groups.compute(key, (k, group) -> {
+            boolean created = group == null;
+            if (created) {
+                group = new Group();
                 evictionQueue.add(k);
             }
-            queue.add(word);
-            return queue;
+            group.members.add(word);
+            statistics.recordArrival(k, word, ++group.count, created);
+            return group;
         });
 
         totalWordsProcessed.increment();
+        markDirty(key);
 
         // Trigger lightweight eviction if limit exceeded
         evictIfNeeded();
@@ -100,10 +132,69 @@ public class ConcurrentLRUAnagramGrouper {
     private static void evictIfNeeded() {
         while (groups.size() > MAX_GROUPS) {
             String oldestKey = evictionQueue.poll();
-            if (oldestKey != null) groups.remove(oldestKey);
+            if (oldestKey != null && groups.remove(oldestKey) != null) {
+                statistics.onGroupEvicted(oldestKey);
+                markDirty(oldestKey);
+            }
         }
     }
 
+    private static void markDirty(String key) {
+        AnagramCheckpointer current = checkpointer;
+        if (current != null) current.markDirty(key);
+    }
+
+    /**
+     * Starts incremental background checkpointing of all groups and their eviction order.
+     * Call {@link #restore(Path)} first when resuming from an existing checkpoint.
+     *
+     * @param file           checkpoint file
+     * @param intervalMillis delay between checkpoint rounds
+     */
+    public static synchronized void enableCheckpointing(Path file, long intervalMillis) throws IOException {
+        if (checkpointer != null) return;
+        checkpointer = new AnagramCheckpointer(file, new AnagramCheckpointer.GroupSource() {
+            @Override
+            public AnagramCheckpointer.LiveGroup group(String signature) {
+                return groups.get(signature);
+            }
+
+            @Override
+            public Set<String> signatures() {
+                return groups.keySet();
+            }
+        }, intervalMillis, 2.0);
+    }
+
+    /**
+     * Writes a final checkpoint and stops the background writer.
+     */
+    public static synchronized void disableCheckpointing() throws IOException {
+        if (checkpointer == null) return;
+        checkpointer.close();
+        checkpointer = null;
+    }
+
+    /**
+     * Loads groups from a checkpoint, preserving their eviction order.
+     * Intended for startup, before ingestion begins.
+     *
+     * @param file checkpoint file; missing files restore nothing
+     * @return number of groups restored
+     */
+    public static int restore(Path file) throws IOException {
+        LinkedHashMap<String, List<String>> restored = AnagramCheckpointer.restore(file);
+        restored.forEach((key, members) -> {
+            Group group = new Group();
+            group.members.addAll(members);
+            group.count = members.size();
+            groups.put(key, group);
+            evictionQueue.add(key);
+        });
+        evictIfNeeded();
+        return restored.size();
+    }
+
     /**
      * Retrieves all current anagram groups.
      * Intended for monitoring or batch output.
@@ -112,7 +203,7 @@ public class ConcurrentLRUAnagramGrouper {
      */
     public static Map<String, List<String>> snapshot() {
         Map<String, List<String>> snapshot = new HashMap<>();
-        groups.forEach((key, queue) -> snapshot.put(key, new ArrayList<>(queue)));
+        groups.forEach((key, group) -> snapshot.put(key, new ArrayList<>(group.members)));
         return snapshot;
     }
 
@@ -123,8 +214,19 @@ public class ConcurrentLRUAnagramGrouper {
         return totalWordsProcessed.sum();
     }
 
+    /**
+     * Windowed and top-K statistics. Cheap to poll: never copies the group map.
+     */
+    public static AnagramGroupStatistics statistics() {
+        return statistics;
+    }
+
     // === Demo Runner ===
-    public static void main(String[] args) throws InterruptedException {
+    public static void main(String[] args) throws Exception {
+        Path checkpoint = Path.of(System.getProperty("java.io.tmpdir"), "anagram-groups.ckpt");
+        System.out.println("Restored groups       : " + restore(checkpoint));
+        enableCheckpointing(checkpoint, 200);
+
         // Simulated multi-threaded ingestion
         ExecutorService pool = Executors.newFixedThreadPool(4);
         List<String> words = List.of("listen", "silent", "enlist", "hello", "ohlle", "world", "dlrow");
@@ -138,5 +240,8 @@ public class ConcurrentLRUAnagramGrouper {
 
         System.out.println("Total Words Processed : " + getTotalWordsProcessed());
         snapshot().forEach((sig, group) -> System.out.println(group));
+        statistics().printStats();
+
+        disableCheckpointing(); // run the demo again to resume from the checkpoint
     }
 }
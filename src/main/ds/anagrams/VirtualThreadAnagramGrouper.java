@@ -0,0 +1,192 @@
+package main.ds.anagrams;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * VirtualThreadAnagramGrouper ingests words from many blocking sources
+ * (network readers, sockets, file tails) and feeds them into one bounded,
+ * shared grouping stage.
+ *
+ * <p>{@link ReactiveAnagramGrouper} and {@link ReactiveAnagramGrouperLRU} run on a
+ * fixed pool of 4 platform threads. When each producer blocks on I/O that pool is
+ * either too small (only 4 sources make progress, the rest queue up) or has to be
+ * oversized with hundreds of mostly idle platform threads. With
+ * {@link IngestionMode#VIRTUAL_THREADS} every source gets its own virtual thread,
+ * which unmounts from its carrier while blocked, so thousands of sources can read
+ * concurrently on a handful of cores.</p>
+ *
+ * <h2>Pipeline</h2>
+ * <pre>
+ *   source 1 ─┐
+ *   source 2 ─┼─ (one thread per source) ─→ BackpressureAnagramGrouper (bounded, BLOCK) ─→ groups
+ *   source N ─┘
+ * </pre>
+ * The grouping stage is a {@link BackpressureAnagramGrouper} with the BLOCK policy,
+ * so fast readers park when grouping falls behind instead of growing the heap.
+ *
+ * <h2>Modes</h2>
+ * <ul>
+ *   <li><b>FIXED_POOL</b>: sources run on {@code Executors.newFixedThreadPool(poolSize)}, as in the reactive groupers.</li>
+ *   <li><b>VIRTUAL_THREADS</b>: sources run on {@code Executors.newVirtualThreadPerTaskExecutor()}.</li>
+ * </ul>
+ *
+ * <h2>Complexity</h2>
+ * Per word cost is unchanged, O(L). The mode only changes how many sources can be
+ * blocked in I/O at the same time: poolSize for FIXED_POOL, effectively unbounded for
+ * VIRTUAL_THREADS.
+ */
+public class VirtualThreadAnagramGrouper {
+
+    /** Thread model used to drive the sources. */
+    public enum IngestionMode { FIXED_POOL, VIRTUAL_THREADS }
+
+    /**
+     * A blocking source of words, e.g. a socket or Kafka consumer wrapper.
+     */
+    @FunctionalInterface
+    public interface WordSource {
+        /**
+         * Reads the next word, blocking if none is available yet.
+         *
+         * @return the next word, or {@code null} once the source is exhausted
+         */
+        String read() throws Exception;
+    }
+
+    private final IngestionMode mode;
+    private final int poolSize;
+    private final BackpressureAnagramGrouper groupingStage;
+
+    /**
+     * @param mode          how sources are scheduled
+     * @param poolSize      thread count for {@link IngestionMode#FIXED_POOL}; ignored for virtual threads
+     * @param groupingStage shared, bounded grouping stage all sources feed into
+     */
+    public VirtualThreadAnagramGrouper(IngestionMode mode, int poolSize, BackpressureAnagramGrouper groupingStage) {
+        this.mode = Objects.requireNonNull(mode);
+        this.poolSize = poolSize;
+        this.groupingStage = Objects.requireNonNull(groupingStage);
+    }
+
+    private ExecutorService newIngestionExecutor() {
+        return mode == IngestionMode.VIRTUAL_THREADS
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(poolSize);
+    }
+
+    /**
+     * Drains every source into the grouping stage and returns once all of them are exhausted.
+     * The other sources still run to completion if one fails, and the first failure is then rethrown.
+     *
+     * @param sources blocking word sources, one task (thread) per source
+     * @throws ExecutionException if a source failed; its exception is the cause
+     */
+    public void ingest(Collection<? extends WordSource> sources) throws InterruptedException, ExecutionException {
+        List<Future<Void>> readers = new ArrayList<>(sources.size());
+        try (ExecutorService executor = newIngestionExecutor()) {
+            for (WordSource source : sources) {
+                readers.add(executor.submit(() -> {
+                    String word;
+                    while ((word = source.read()) != null) {
+                        groupingStage.onWord(word);
+                    }
+                    return null;
+                }));
+            }
+        } // close() waits for every source to finish
+        groupingStage.flush();
+        for (Future<Void> reader : readers) {
+            reader.get(); // all done already; throws if the source failed
+        }
+    }
+
+    // === Simulated network source and mode comparison ===
+
+    /**
+     * Simulated network reader: delivers {@code chunks} chunks of {@code wordsPerChunk} words,
+     * each chunk becoming available {@code latencyMillis} after the previous one.
+     * Records how long each chunk waited between becoming available and being read.
+     */
+    private static final class SimulatedNetworkSource implements WordSource {
+        private static final String[] VOCABULARY = {"listen", "silent", "enlist", "hello", "ohlle", "world", "dlrow"};
+
+        private final int chunks;
+        private final int wordsPerChunk;
+        private final long latencyNanos;
+        private final long[] deliveryDelays;
+        private long nextAvailableAt;
+        private int chunk;
+        private int wordInChunk;
+
+        SimulatedNetworkSource(int chunks, int wordsPerChunk, long latencyMillis, long startNanos) {
+            this.chunks = chunks;
+            this.wordsPerChunk = wordsPerChunk;
+            this.latencyNanos = TimeUnit.MILLISECONDS.toNanos(latencyMillis);
+            this.deliveryDelays = new long[chunks];
+            this.nextAvailableAt = startNanos + latencyNanos;
+        }
+
+        @Override
+        public String read() throws InterruptedException {
+            if (chunk == chunks) return null;
+            if (wordInChunk == 0) {
+                long wait = nextAvailableAt - System.nanoTime();
+                if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait); // blocking I/O
+                deliveryDelays[chunk] = System.nanoTime() - nextAvailableAt;
+            }
+            String word = VOCABULARY[(chunk + wordInChunk) % VOCABULARY.length];
+            if (++wordInChunk == wordsPerChunk) {
+                wordInChunk = 0;
+                chunk++;
+                nextAvailableAt = System.nanoTime() + latencyNanos;
+            }
+            return word;
+        }
+    }
+
+    private static void compare(IngestionMode mode, int sources, int chunks, int wordsPerChunk, long latencyMillis)
+            throws Exception {
+        try (BackpressureAnagramGrouper stage = new BackpressureAnagramGrouper()) {
+            VirtualThreadAnagramGrouper grouper = new VirtualThreadAnagramGrouper(mode, 4, stage);
+
+            long start = System.nanoTime();
+            List<SimulatedNetworkSource> readers = new ArrayList<>();
+            for (int i = 0; i < sources; i++) {
+                readers.add(new SimulatedNetworkSource(chunks, wordsPerChunk, latencyMillis, start));
+            }
+            grouper.ingest(readers);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long[] delays = readers.stream().flatMapToLong(r -> Arrays.stream(r.deliveryDelays)).sorted().toArray();
+            System.out.printf("%-15s sources=%-5d words/sec=%-10.0f p50=%6.2f ms  p99=%8.2f ms  max=%8.2f ms%n",
+                    mode, sources, (double) sources * chunks * wordsPerChunk / seconds,
+                    percentile(delays, 0.50) / 1e6, percentile(delays, 0.99) / 1e6,
+                    delays[delays.length - 1] / 1e6);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+
+    public static void main(String[] args) throws Exception {
+        // A failing source must fail ingest instead of finishing with missing words.
+        try (BackpressureAnagramGrouper stage = new BackpressureAnagramGrouper()) {
+            WordSource broken = () -> {
+                throw new IOException("connection reset");
+            };
+            new VirtualThreadAnagramGrouper(IngestionMode.VIRTUAL_THREADS, 4, stage).ingest(List.of(broken));
+            throw new AssertionError("ingest did not report the failed source");
+        } catch (ExecutionException e) {
+            System.out.println("failed source reported: " + e.getCause());
+        }
+
+        // Each source delivers 20 chunks of 100 words, one chunk every 5 ms.
+        for (int sources : new int[]{4, 64, 512}) {
+            compare(IngestionMode.FIXED_POOL, sources, 20, 100, 5);
+            compare(IngestionMode.VIRTUAL_THREADS, sources, 20, 100, 5);
+        }
+    }
+}
@@ -1,8 +1,33 @@
 package main.ds.linkedlist;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
 
+/*
+ * Separate chaining with doubly linked buckets.
+ *
+ * By default the number of buckets is fixed (RehashMode.NONE). With a growth mode the table doubles once the
+ * map holds more keys than buckets:
+ *
+ *      STOP_THE_WORLD : the put that crosses the threshold moves every node to the new table before returning
+ *      INCREMENTAL    : like Redis' dict, old and new tables are kept side by side and every put/get/remove
+ *                       moves the next REHASH_BUCKETS non-empty buckets (visiting at most 10x as many empty
+ *                       ones); reads check both tables and new keys go to the new table only
+ *
+ * Incremental rehash spreads the O(n) move over the next n/REHASH_BUCKETS operations, so no single put pays
+ * for the whole map. It finishes before the new table can fill up: n inserts at most are needed to reach
+ * the next threshold and n buckets are migrated in n / REHASH_BUCKETS operations.
+ */
 public class HashMapUsingDoubleLinkedList<K, V> {
+    private static final int REHASH_BUCKETS = 1;
+    private static final int EMPTY_VISITS_PER_BUCKET = 10;
+
+    public enum RehashMode { NONE, STOP_THE_WORLD, INCREMENTAL }
+
     private static class DoublyLinkedListNode<K, V> {
         K key;
         V value;
@@ -17,125 +42,244 @@ public class HashMapUsingDoubleLinkedList<K, V> {
         }
     }
 
-    private final ArrayList<DoublyLinkedListNode<K, V>> store;
-
-    private final int capacity;
+    private final RehashMode mode;
+    private ArrayList<DoublyLinkedListNode<K, V>> store;
+    private int capacity;
+    private ArrayList<DoublyLinkedListNode<K, V>> oldStore; // non-null while an incremental rehash is running
+    private int oldCapacity;
+    private int rehashIndex; // next bucket of oldStore to migrate
+    private int size;
 
     public HashMapUsingDoubleLinkedList(int size) {
+        this(size, RehashMode.NONE);
+    }
+
+    public HashMapUsingDoubleLinkedList(int size, RehashMode mode) {
+        this.mode = mode;
         this.capacity = size;
-        this.store = new ArrayList<>(size);
-        for (int i = 0; i < size; i++) {
-            store.add(null);
-        }
+        this.store = newStore(size);
+    }
+
+    /* Bulk copy of nulls: the new table is allocated inside a put, so avoid size separate add() calls. */
+    private static <K, V> ArrayList<DoublyLinkedListNode<K, V>> newStore(int size) {
+        return new ArrayList<>(Collections.nCopies(size, null));
     }
 
     public int generateHashedIndex(K key) {
-        return Math.abs(key.hashCode() % this.capacity);
+        return generateHashedIndex(key, this.capacity);
+    }
+
+    private int generateHashedIndex(K key, int capacity) {
+        return Math.abs(key.hashCode() % capacity);
+    }
+
+    public boolean isRehashing() {
+        return oldStore != null;
     }
 
     public void put(K key, V value) {
-        int index = generateHashedIndex(key);
+        if (oldStore != null) {
+            rehashStep();
+            if (oldStore != null) {
+                DoublyLinkedListNode<K, V> existing = find(oldStore, generateHashedIndex(key, oldCapacity), key);
+                if (existing != null) {
+                    existing.value = value; // not migrated yet: update in place, it moves with its bucket
+                    return;
+                }
+            }
+        }
+        if (append(store, generateHashedIndex(key), new DoublyLinkedListNode<>(key, value))) {
+            size++;
+            if (size > capacity && mode != RehashMode.NONE) grow();
+        }
+    }
+
+    /* Appends node at the end of the bucket's chain; false (and the value updated) if the key is already there. */
+    private boolean append(ArrayList<DoublyLinkedListNode<K, V>> store, int index, DoublyLinkedListNode<K, V> newNode) {
         DoublyLinkedListNode<K, V> head = store.get(index);
-        DoublyLinkedListNode<K, V> newNode = new DoublyLinkedListNode<>(key, value);
         if (head == null) {
             store.set(index, newNode);
-        } else {
-            DoublyLinkedListNode<K, V> current = head;
-            // Traverse all but the last node
-            while (current.next != null) {
-                if (current.key.equals(key)) {
-                    current.value = value; // Key already exists, update the value
-                    return;
-                }
-                current = current.next;
+            return true;
+        }
+        DoublyLinkedListNode<K, V> current = head;
+        // Traverse all but the last node
+        while (current.next != null) {
+            if (current.key.equals(newNode.key)) {
+                current.value = newNode.value; // Key already exists, update the value
+                return false;
             }
+            current = current.next;
+        }
+
+        // Check the last node
+        if (current.key.equals(newNode.key)) {
+            current.value = newNode.value; // Key already exists, update the value
+            return false;
+        }
+        current.next = newNode; // Add the new node to the end of the linked list
+        newNode.prev = current;
+        return true;
+    }
 
-            // Check the last node
+    private DoublyLinkedListNode<K, V> find(ArrayList<DoublyLinkedListNode<K, V>> store, int index, K key) {
+        DoublyLinkedListNode<K, V> current = store.get(index);
+        while (current != null) {
             if (current.key.equals(key)) {
-                current.value = value; // Key already exists, update the value
-            } else {
-                current.next = newNode; // Add the new node to the end of the linked list
-                newNode.prev = current;
+                return current;
             }
+            current = current.next;
         }
+        return null;
     }
 
     public V get(K key) {
-        int index = generateHashedIndex(key);
-        DoublyLinkedListNode<K, V> head = store.get(index);
-        if (head == null) {
-            return null;
-        } else {
-            DoublyLinkedListNode<K, V> current = head;
-            while (current != null) {
-                if (current.key.equals(key)) {
-                    return current.value;
-                }
-                current = current.next;
-            }
+        if (oldStore != null) rehashStep();
+        DoublyLinkedListNode<K, V> node = find(store, generateHashedIndex(key), key);
+        if (node == null && oldStore != null) {
+            node = find(oldStore, generateHashedIndex(key, oldCapacity), key);
         }
-        return null;
+        return node == null ? null : node.value;
     }
 
     public boolean remove(K key) {
-        int index = generateHashedIndex(key);
-        DoublyLinkedListNode<K, V> head = store.get(index);
-        if (head == null || size() == 0) {
+        if (oldStore != null) rehashStep();
+        if (unlink(store, generateHashedIndex(key), key)
+                || (oldStore != null && unlink(oldStore, generateHashedIndex(key, oldCapacity), key))) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean unlink(ArrayList<DoublyLinkedListNode<K, V>> store, int index, K key) {
+        DoublyLinkedListNode<K, V> current = find(store, index, key);
+        if (current == null) {
             return false;
+        }
+        if (current.prev != null) {
+            current.prev.next = current.next;
         } else {
-            if (head.key.equals(key)) {
-                store.set(index, head.next);
-                if (head.next != null) {
-                    head.next.prev = null;
-                }
-                return true;
-            }
-            DoublyLinkedListNode<K, V> current = head;
-            while (current != null) {
-                if (current.key.equals(key)) {
-                    if (current.prev != null) {
-                        current.prev.next = current.next;
-                    }
-                    if (current.next != null) {
-                        current.next.prev = current.prev;
-                    }
-                    return true;
-                }
-                current = current.next;
-            }
+            store.set(index, current.next);
         }
-        return false;
+        if (current.next != null) {
+            current.next.prev = current.prev;
+        }
+        current.prev = null;
+        current.next = null;
+        return true;
     }
 
     public int size() {
-        int size = 0;
-        if (this.capacity > 0) {
-            for (DoublyLinkedListNode<K, V> node : store) {
-                DoublyLinkedListNode<K, V> current = node;
-                while (current != null) {
-                    size++;
-                    current = current.next;
+        return size;
+    }
+
+    public void clear() {
+        for (ArrayList<DoublyLinkedListNode<K, V>> table : Arrays.asList(store, oldStore)) {
+            if (table == null) continue;
+            for (int i = 0; i < table.size(); i++) {
+                DoublyLinkedListNode<K, V> head = table.get(i);
+                while (head != null) {
+                    DoublyLinkedListNode<K, V> next = head.next;
+                    head.prev = null;
+                    head.next = null;
+                    head = next;
                 }
+                table.set(i, null);
             }
         }
-        return size;
+        oldStore = null;
+        size = 0;
     }
 
-    public void clear() {
-        for (int i = 0; i < capacity; i++) {
-            DoublyLinkedListNode<K, V> head = store.get(i);
-            while (head != null) {
-                DoublyLinkedListNode<K, V> next = head.next;
-                head.prev = null;
-                head.next = null;
-                head = next;
+    private void grow() {
+        if (oldStore != null) {
+            finishRehash(); // cannot happen with REHASH_BUCKETS >= 1, kept as a safety net
+        }
+        oldStore = store;
+        oldCapacity = capacity;
+        rehashIndex = 0;
+        capacity = Math.max(1, capacity * 2);
+        store = newStore(capacity);
+        if (mode == RehashMode.STOP_THE_WORLD) {
+            finishRehash();
+        }
+    }
+
+    private void finishRehash() {
+        while (oldStore != null) {
+            rehashStep();
+        }
+    }
+
+    /* Moves up to REHASH_BUCKETS non-empty buckets (the nodes themselves, no allocation) to the new table. */
+    private void rehashStep() {
+        int buckets = mode == RehashMode.STOP_THE_WORLD ? oldCapacity : REHASH_BUCKETS;
+        int emptyVisits = buckets * EMPTY_VISITS_PER_BUCKET;
+        while (buckets > 0 && rehashIndex < oldCapacity) {
+            DoublyLinkedListNode<K, V> node = oldStore.get(rehashIndex);
+            if (node == null) {
+                rehashIndex++;
+                if (--emptyVisits == 0) return;
+                continue;
+            }
+            while (node != null) {
+                DoublyLinkedListNode<K, V> next = node.next;
+                int index = generateHashedIndex(node.key);
+                DoublyLinkedListNode<K, V> head = store.get(index); // prepend: the key cannot already be there
+                node.prev = null;
+                node.next = head;
+                if (head != null) head.prev = node;
+                store.set(index, node);
+                node = next;
+            }
+            oldStore.set(rehashIndex++, null);
+            buckets--;
+        }
+        if (rehashIndex >= oldCapacity) {
+            oldStore = null;
+        }
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += gc.getCollectionCount();
+        }
+        return count;
+    }
+
+    /*
+     * Per-put latency while growing from 16 buckets to n keys; returns the sorted latencies followed by the
+     * worst put during which no GC ran. Every GC pause makes some put slow, so checking the collection count
+     * on slow puts only is enough to tell which ones a GC ran in.
+     */
+    private static long[] growthLatencies(RehashMode mode, Integer[] keys) {
+        HashMapUsingDoubleLinkedList<Integer, Integer> map = new HashMapUsingDoubleLinkedList<>(16, mode);
+        long[] nanos = new long[keys.length + 1];
+        long worstWithoutGc = 0;
+        long collections = gcCount();
+        for (int i = 0; i < keys.length; i++) {
+            long start = System.nanoTime();
+            map.put(keys[i], i);
+            long elapsed = System.nanoTime() - start;
+            nanos[i] = elapsed;
+            if (elapsed > 50_000) {
+                long now = gcCount();
+                if (now == collections) worstWithoutGc = Math.max(worstWithoutGc, elapsed);
+                collections = now;
             }
-            store.set(i, null);
         }
+        for (Integer key : keys) {
+            if (map.get(key) == null) throw new AssertionError("lost key " + key + " in " + mode);
+        }
+        if (map.size() != keys.length) throw new AssertionError("size " + map.size() + " in " + mode);
+        Arrays.sort(nanos, 0, keys.length);
+        nanos[keys.length] = worstWithoutGc;
+        return nanos;
     }
 
     public static void main(String[] args) {
-        HashMapUsingLinkedList<String, Integer> hashSet = new HashMapUsingLinkedList<>(10);
+        HashMapUsingDoubleLinkedList<String, Integer> hashSet = new HashMapUsingDoubleLinkedList<>(10);
 
         hashSet.put("Apple", 5);
         hashSet.put("Banana", 10);
@@ -150,5 +294,23 @@ public class HashMapUsingDoubleLinkedList<K, V> {
 
         hashSet.clear();
         System.out.println("Is empty after clear? " + hashSet.size());
+
+        // Put latency while the table grows from 16 buckets: one full rehash per doubling vs Redis-style steps.
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Random random = new Random(42);
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) keys[i] = i * 31 + random.nextInt(31); // distinct
+        for (int round = 0; round < 3; round++) { // earlier rounds warm up the JIT
+            long[] stopTheWorld = growthLatencies(RehashMode.STOP_THE_WORLD, keys);
+            long[] incremental = growthLatencies(RehashMode.INCREMENTAL, keys);
+            if (round < 2) continue;
+            System.out.printf("%nput latency growing to %d keys, ns%n%-16s %6s %6s %7s %8s %10s %14s%n",
+                    n, "", "p50", "p99", "p99.9", "p99.99", "max", "max w/o GC");
+            for (Object[] row : new Object[][]{{"stop-the-world", stopTheWorld}, {"incremental", incremental}}) {
+                long[] nanos = (long[]) row[1];
+                System.out.printf("%-16s %6d %6d %7d %8d %10d %14d%n", row[0], nanos[n / 2], nanos[(int) (n * 0.99)],
+                        nanos[(int) (n * 0.999)], nanos[(int) (n * 0.9999)], nanos[n - 1], nanos[n]);
+            }
+        }
     }
 }
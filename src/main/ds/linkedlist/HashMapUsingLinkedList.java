@@ -2,6 +2,10 @@ package main.ds.linkedlist;
 
 import java.util.ArrayList;
 
+/*
+ * Separate chaining over a fixed number of buckets: the table never resizes, so chains grow linearly with
+ * the number of keys per bucket. SwissTableHashMap is the resizing open-addressing alternative.
+ */
 public class HashMapUsingLinkedList<K, V> {
     private static class LinkedListNode<K, V> {
         K key;
@@ -0,0 +1,369 @@
+package main.ds.linkedlist;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Random;
+
+/*
+ * Open-addressing hash map in the style of Abseil's Swiss tables, with incremental resizing.
+ *
+ * HashMapUsingLinkedList / HashMapUsingDoubleLinkedList hang a chain off each of a fixed number of buckets:
+ * once the map holds many times more keys than buckets, every get walks a long list of scattered nodes.
+ * Here keys and values live in flat arrays and every slot has a one-byte control code:
+ *
+ *      EMPTY    1000_0000
+ *      DELETED  1111_1110   (tombstone: the probe sequence must continue past it)
+ *      FULL     0hhh_hhhh   (h = low 7 bits of the hash, "h2")
+ *
+ * Slots are grouped by 8, so one long holds the control bytes of a whole group. A lookup picks a start group
+ * from the rest of the hash ("h1") and compares h2 against all 8 bytes at once with SWAR bit tricks; only
+ * slots whose byte matches (1 in 128 false positives) touch the key array. The probe moves on to the next
+ * group (triangular steps) only if the group has no EMPTY byte, so at load factor 0.875 a get reads about
+ * one control word and one key.
+ *
+ * Resizing is incremental: when the table reaches its load factor a table twice the size becomes current,
+ * the old one is kept, and every put/remove migrates MIGRATE_GROUPS groups from old to new. Gets look in
+ * the new table first, then the old. Migration always finishes long before the new table can fill up,
+ * so no single put pays for rehashing the whole map.
+ * Time Complexity  : get / put / remove O(1) expected.
+ * Space Complexity : O(capacity): 1 control byte + 2 references per slot.
+ */
+public class SwissTableHashMap<K, V> {
+    private static final int GROUP = 8;
+    private static final byte EMPTY = (byte) 0x80;
+    private static final byte DELETED = (byte) 0xFE;
+    private static final long LSB = 0x0101010101010101L;
+    private static final long MSB = 0x8080808080808080L;
+    private static final long ALL_EMPTY = 0x8080808080808080L;
+    private static final int MIGRATE_GROUPS = 1;
+
+    private static final class Table {
+        final long[] control; // one word per group, byte i = control code of slot i of the group
+        final Object[] keys;
+        final Object[] values;
+        final int groupMask;
+        final int maxUsed;    // size + tombstones allowed before the next resize
+        int size;
+        int tombstones;
+
+        Table(int groups, float loadFactor) {
+            control = new long[groups];
+            Arrays.fill(control, ALL_EMPTY);
+            keys = new Object[groups * GROUP];
+            values = new Object[groups * GROUP];
+            groupMask = groups - 1;
+            maxUsed = (int) (groups * GROUP * loadFactor);
+        }
+
+        byte controlAt(int slot) {
+            return (byte) (control[slot >>> 3] >>> ((slot & 7) << 3));
+        }
+
+        void setControl(int slot, byte code) {
+            int shift = (slot & 7) << 3;
+            long word = control[slot >>> 3];
+            control[slot >>> 3] = (word & ~(0xFFL << shift)) | ((code & 0xFFL) << shift);
+        }
+
+        /* Slot holding key, or -1. */
+        int find(Object key, int hash) {
+            long pattern = LSB * (hash & 0x7F);
+            int group = (hash >>> 7) & groupMask;
+            for (int step = 1; ; step++) {
+                long word = control[group];
+                for (long match = matchByte(word, pattern); match != 0; match &= match - 1) {
+                    int slot = group * GROUP + (Long.numberOfTrailingZeros(match) >>> 3);
+                    Object candidate = keys[slot];
+                    if (candidate == key || candidate.equals(key)) return slot;
+                }
+                if (matchEmpty(word) != 0) return -1;
+                if (step > groupMask) return -1; // every group probed (only possible with tombstones everywhere)
+                group = (group + step) & groupMask;
+            }
+        }
+
+        /* First EMPTY or DELETED slot on the key's probe sequence; the caller guarantees there is one. */
+        int findInsertSlot(int hash) {
+            int group = (hash >>> 7) & groupMask;
+            for (int step = 1; ; step++) {
+                long free = control[group] & MSB;
+                if (free != 0) return group * GROUP + (Long.numberOfTrailingZeros(free) >>> 3);
+                group = (group + step) & groupMask;
+            }
+        }
+
+        void insertNew(Object key, Object value, int hash) {
+            int slot = findInsertSlot(hash);
+            if (controlAt(slot) == DELETED) tombstones--;
+            setControl(slot, (byte) (hash & 0x7F));
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+        }
+
+        void clearSlot(int slot) {
+            // A group that still has an EMPTY byte never made a probe continue past it: no tombstone needed.
+            if (matchEmpty(control[slot >>> 3]) != 0) {
+                setControl(slot, EMPTY);
+            } else {
+                setControl(slot, DELETED);
+                tombstones++;
+            }
+            keys[slot] = null;
+            values[slot] = null;
+            size--;
+        }
+    }
+
+    /* High bit set in every byte of word equal to the byte repeated in pattern (rare false positives, never false negatives). */
+    private static long matchByte(long word, long pattern) {
+        long x = word ^ pattern;
+        return (x - LSB) & ~x & MSB;
+    }
+
+    /* High bit set in every EMPTY byte: EMPTY is the only code with bit 7 set and bit 1 clear. */
+    private static long matchEmpty(long word) {
+        return word & (~word << 6) & MSB;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9; // spread sequential hashCodes over h1 and h2
+        return h ^ (h >>> 15);
+    }
+
+    private final float loadFactor;
+    private Table table;
+    private Table old;        // non-null while a resize is being migrated
+    private int migrateGroup; // next group of old to migrate
+
+    public SwissTableHashMap() {
+        this(16, 0.875f);
+    }
+
+    public SwissTableHashMap(int initialCapacity, float loadFactor) {
+        if (loadFactor <= 0 || loadFactor > 0.9375f) {
+            throw new IllegalArgumentException("loadFactor must be in (0, 0.9375]");
+        }
+        this.loadFactor = loadFactor;
+        int groups = Integer.highestOneBit(Math.max(1, (int) Math.ceil(initialCapacity / (GROUP * loadFactor))) * 2 - 1);
+        this.table = new Table(groups, loadFactor);
+    }
+
+    public V get(K key) {
+        int hash = hash(key);
+        int slot = table.find(key, hash);
+        if (slot >= 0) return value(table, slot);
+        if (old != null && (slot = old.find(key, hash)) >= 0) return value(old, slot);
+        return null;
+    }
+
+    public boolean containsKey(K key) {
+        int hash = hash(key);
+        return table.find(key, hash) >= 0 || (old != null && old.find(key, hash) >= 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(Table in, int slot) {
+        return (V) in.values[slot];
+    }
+
+    /* Returns the previous value, or null. */
+    public V put(K key, V value) {
+        if (key == null) throw new NullPointerException("key");
+        int hash = hash(key);
+        if (old != null) {
+            migrate();
+            if (old != null) {
+                int slot = old.find(key, hash);
+                if (slot >= 0) { // not migrated yet: update in place, it moves with its group
+                    V previous = value(old, slot);
+                    old.values[slot] = value;
+                    return previous;
+                }
+            }
+        }
+        int slot = table.find(key, hash);
+        if (slot >= 0) {
+            V previous = value(table, slot);
+            table.values[slot] = value;
+            return previous;
+        }
+        if (table.size + table.tombstones >= table.maxUsed) {
+            grow();
+        }
+        table.insertNew(key, value, hash);
+        return null;
+    }
+
+    public V remove(K key) {
+        int hash = hash(key);
+        if (old != null) migrate();
+        int slot = table.find(key, hash);
+        Table in = table;
+        if (slot < 0 && old != null && (slot = old.find(key, hash)) >= 0) in = old;
+        if (slot < 0) return null;
+        V previous = value(in, slot);
+        in.clearSlot(slot);
+        return previous;
+    }
+
+    public int size() {
+        return table.size + (old == null ? 0 : old.size);
+    }
+
+    public void clear() {
+        table = new Table(table.groupMask + 1, loadFactor);
+        old = null;
+    }
+
+    /* Starts a resize; mostly tombstones means a same-size rebuild is enough to reclaim them. */
+    private void grow() {
+        if (old != null) finishMigration(); // cannot happen with MIGRATE_GROUPS >= 1, kept as a safety net
+        int groups = table.groupMask + 1;
+        int newGroups = table.size >= table.maxUsed / 2 ? groups * 2 : groups;
+        old = table;
+        table = new Table(newGroups, loadFactor);
+        migrateGroup = 0;
+        migrate();
+    }
+
+    private void migrate() {
+        int end = Math.min(migrateGroup + MIGRATE_GROUPS, old.groupMask + 1);
+        for (int group = migrateGroup; group < end; group++) {
+            long word = old.control[group];
+            for (long full = ~word & MSB; full != 0; full &= full - 1) {
+                int slot = group * GROUP + (Long.numberOfTrailingZeros(full) >>> 3);
+                Object key = old.keys[slot];
+                table.insertNew(key, old.values[slot], hash(key));
+                old.keys[slot] = null;
+                old.values[slot] = null;
+                old.setControl(slot, DELETED); // not EMPTY: unmigrated keys may probe through this group
+                old.size--;
+            }
+        }
+        migrateGroup = end;
+        if (end > old.groupMask) old = null;
+    }
+
+    private void finishMigration() {
+        while (old != null) migrate();
+    }
+
+    // === Latency percentiles against chaining and java.util.HashMap ===
+
+    private interface PutOp {
+        void put(Integer key);
+    }
+
+    private interface GetOp {
+        Object get(Integer key);
+    }
+
+    private static long[] timePuts(Integer[] keys, PutOp op) {
+        long[] nanos = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            long start = System.nanoTime();
+            op.put(keys[i]);
+            nanos[i] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private static long[] timeGets(Integer[] keys, GetOp op) {
+        long[] nanos = new long[keys.length];
+        int sink = 0;
+        for (int i = 0; i < keys.length; i++) {
+            long start = System.nanoTime();
+            if (op.get(keys[i]) != null) sink++;
+            nanos[i] = System.nanoTime() - start;
+        }
+        if (sink != keys.length) throw new AssertionError("missing keys: " + (keys.length - sink));
+        return nanos;
+    }
+
+    private static String percentiles(long[] nanos) {
+        Arrays.sort(nanos);
+        return String.format("%5d %5d %6d %7d %9d", nanos[nanos.length / 2], nanos[(int) (nanos.length * 0.99)],
+                nanos[(int) (nanos.length * 0.999)], nanos[(int) (nanos.length * 0.9999)], nanos[nanos.length - 1]);
+    }
+
+    private static void report(String name, long[] puts, long[] gets) {
+        System.out.printf("%-30s put %s   get %s%n", name, percentiles(puts), percentiles(gets));
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) keys[i] = random.nextInt();
+        Integer[] lookups = keys.clone();
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer swap = lookups[i];
+            lookups[i] = lookups[j];
+            lookups[j] = swap;
+        }
+
+        // Sanity check against java.util.HashMap, including removes and updates across a migration.
+        SwissTableHashMap<Integer, Integer> check = new SwissTableHashMap<>();
+        HashMap<Integer, Integer> reference = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(50_000);
+            if (random.nextInt(4) == 0) {
+                if (!Objects.equals(check.remove(key), reference.remove(key))) {
+                    throw new AssertionError("remove " + key);
+                }
+            } else {
+                if (!Objects.equals(check.put(key, i), reference.put(key, i))) throw new AssertionError("put " + key);
+            }
+            if (check.size() != reference.size()) throw new AssertionError("size after op " + i);
+        }
+        for (int key = 0; key < 50_000; key++) {
+            if (!Objects.equals(check.get(key), reference.get(key))) throw new AssertionError("get " + key);
+        }
+        System.out.println("SwissTableHashMap agrees with java.util.HashMap on 200K random put/remove");
+
+        System.out.printf("%n%d Integer keys, latency in ns (timer overhead included; max includes GC pauses)%n", n);
+        System.out.printf("%-30s     %5s %5s %6s %7s %9s       %5s %5s %6s %7s %9s%n", "",
+                "p50", "p99", "p99.9", "p99.99", "max", "p50", "p99", "p99.9", "p99.99", "max");
+        for (int round = 0; round < 2; round++) { // first round is warm-up for the JIT
+            if (round == 1) System.out.println();
+            for (float loadFactor : new float[]{0.5f, 0.6f, 0.7f, 0.8f, 0.9f}) {
+                int buckets = (int) (n / loadFactor);
+                if (round == 1) System.out.printf("load factor %.1f%n", loadFactor);
+
+                SwissTableHashMap<Integer, Integer> swiss = new SwissTableHashMap<>(16, loadFactor);
+                long[] swissPuts = timePuts(keys, key -> swiss.put(key, key));
+                long[] swissGets = timeGets(lookups, swiss::get);
+
+                HashMap<Integer, Integer> jdk = new HashMap<>(16, loadFactor);
+                long[] jdkPuts = timePuts(keys, key -> jdk.put(key, key));
+                long[] jdkGets = timeGets(lookups, jdk::get);
+
+                HashMapUsingLinkedList<Integer, Integer> chained = new HashMapUsingLinkedList<>(buckets);
+                long[] chainedPuts = timePuts(keys, key -> chained.put(key, key));
+                long[] chainedGets = timeGets(lookups, chained::get);
+
+                HashMapUsingDoubleLinkedList<Integer, Integer> doubly = new HashMapUsingDoubleLinkedList<>(buckets);
+                long[] doublyPuts = timePuts(keys, key -> doubly.put(key, key));
+                long[] doublyGets = timeGets(lookups, doubly::get);
+
+                if (round == 1) {
+                    report("  SwissTableHashMap", swissPuts, swissGets);
+                    report("  java.util.HashMap", jdkPuts, jdkGets);
+                    report("  HashMapUsingLinkedList", chainedPuts, chainedGets);
+                    report("  HashMapUsingDoubleLinkedList", doublyPuts, doublyGets);
+                }
+            }
+        }
+
+        // What the chaining maps do when sized for a tenth of the load: chains of ~40 nodes.
+        int fewBuckets = n / 40;
+        HashMapUsingLinkedList<Integer, Integer> crowded = new HashMapUsingLinkedList<>(fewBuckets);
+        long[] crowdedPuts = timePuts(keys, key -> crowded.put(key, key));
+        long[] crowdedGets = timeGets(lookups, crowded::get);
+        System.out.printf("%nfixed %d buckets (load factor 40)%n", fewBuckets);
+        report("  HashMapUsingLinkedList", crowdedPuts, crowdedGets);
+    }
+}
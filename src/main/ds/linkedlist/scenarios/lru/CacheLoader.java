@@ -0,0 +1,21 @@
+package main.ds.linkedlist.scenarios.lru;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Backing-store access used by a read-through cache on a miss.
+ * Override loadAll when the store supports batched reads (multi-get, IN queries, pipelining).
+ */
+@FunctionalInterface
+public interface CacheLoader<K, V> {
+
+    V load(K key) throws Exception;
+
+    default Map<K, V> loadAll(Collection<? extends K> keys) throws Exception {
+        Map<K, V> result = new HashMap<>();
+        for (K key : keys) result.put(key, load(key));
+        return result;
+    }
+}
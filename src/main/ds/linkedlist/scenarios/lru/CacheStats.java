@@ -0,0 +1,114 @@
+package main.ds.linkedlist.scenarios.lru;
+
+/*
+ * Statistics surface shared by the LRU caches in this package.
+ *
+ * A cache calls the record* methods on its hot path, so implementations must not allocate or block there.
+ * Readers call snapshot(), which returns an immutable point-in-time copy; the difference of two snapshots
+ * (minus) gives the rates over an interval, which is what CacheStatsReporter hands to its sink.
+ *
+ * Recency depth is the distance of a hit from the most recently used end of the list. Caches that know it
+ * exactly (linear scans) report it exactly; list caches with a promotion stamp report "promotions since this
+ * entry was last moved to the head", an upper bound that costs one subtraction. Caches that cannot tell
+ * simply do not record it.
+ */
+public interface CacheStats {
+
+    void recordHit();
+
+    /* Hit at the given distance from the most recently used end. */
+    void recordHit(long recencyDepth);
+
+    void recordMiss();
+
+    void recordEviction();
+
+    /* One backing-store load that took loadNanos. */
+    void recordLoad(long loadNanos);
+
+    Snapshot snapshot();
+
+    /* Records nothing; the default for caches created without statistics. */
+    CacheStats DISABLED = new CacheStats() {
+        @Override
+        public void recordHit() {
+        }
+
+        @Override
+        public void recordHit(long recencyDepth) {
+        }
+
+        @Override
+        public void recordMiss() {
+        }
+
+        @Override
+        public void recordEviction() {
+        }
+
+        @Override
+        public void recordLoad(long loadNanos) {
+        }
+
+        @Override
+        public Snapshot snapshot() {
+            return new Snapshot(0, 0, 0, 0, 0, 0, 0, System.nanoTime());
+        }
+    };
+
+    /* Immutable counter values at one instant. */
+    final class Snapshot {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long loads;
+        public final long totalLoadNanos;
+        public final long depthSamples;
+        public final long depthSum;
+        public final long takenAtNanos;
+
+        public Snapshot(long hits, long misses, long evictions, long loads, long totalLoadNanos,
+                        long depthSamples, long depthSum, long takenAtNanos) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.loads = loads;
+            this.totalLoadNanos = totalLoadNanos;
+            this.depthSamples = depthSamples;
+            this.depthSum = depthSum;
+            this.takenAtNanos = takenAtNanos;
+        }
+
+        public long requests() {
+            return hits + misses;
+        }
+
+        /* Hits / requests, or 1.0 when there were no requests. */
+        public double hitRatio() {
+            long requests = requests();
+            return requests == 0 ? 1.0 : (double) hits / requests;
+        }
+
+        public double averageLoadNanos() {
+            return loads == 0 ? 0 : (double) totalLoadNanos / loads;
+        }
+
+        public double averageRecencyDepth() {
+            return depthSamples == 0 ? 0 : (double) depthSum / depthSamples;
+        }
+
+        /* Counts accumulated between earlier and this snapshot. */
+        public Snapshot minus(Snapshot earlier) {
+            return new Snapshot(hits - earlier.hits, misses - earlier.misses, evictions - earlier.evictions,
+                    loads - earlier.loads, totalLoadNanos - earlier.totalLoadNanos,
+                    depthSamples - earlier.depthSamples, depthSum - earlier.depthSum, takenAtNanos);
+        }
+
+        @Override
+        public String toString() {
+            String depth = depthSamples == 0 ? "n/a" : String.format("%.1f", averageRecencyDepth());
+            return String.format("hits=%d misses=%d hitRatio=%.2f%% evictions=%d loads=%d avgLoad=%.1fus avgDepth=%s",
+                    hits, misses, 100 * hitRatio(), evictions, loads, averageLoadNanos() / 1e3, depth);
+        }
+    }
+}
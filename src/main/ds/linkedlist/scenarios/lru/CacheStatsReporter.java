@@ -0,0 +1,89 @@
+package main.ds.linkedlist.scenarios.lru;
+
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/*
+ * Periodic snapshot hook for a CacheStats.
+ *
+ * Every period a daemon thread takes a snapshot, subtracts the previous one and hands the interval delta
+ * (hits, misses, evictions, loads during that period) to a sink: a logger, a metrics registry, or an alert
+ * on the hit ratio. An optional HitRatioHistogram keeps the recent intervals for display.
+ * All of this runs on the reporter thread; the cache's hot path is untouched.
+ */
+public final class CacheStatsReporter implements AutoCloseable {
+    private final CacheStats stats;
+    private final Consumer<CacheStats.Snapshot> sink;
+    private final HitRatioHistogram histogram; // may be null
+    private final ScheduledExecutorService scheduler;
+    private CacheStats.Snapshot previous;
+
+    /**
+     * @param stats     counters to sample
+     * @param period    reporting interval
+     * @param unit      unit of period
+     * @param sink      receives the delta of each interval
+     * @param histogram if non-null, also receives every interval
+     */
+    public CacheStatsReporter(CacheStats stats, long period, TimeUnit unit,
+                              Consumer<CacheStats.Snapshot> sink, HitRatioHistogram histogram) {
+        this.stats = Objects.requireNonNull(stats);
+        this.sink = Objects.requireNonNull(sink);
+        this.histogram = histogram;
+        this.previous = stats.snapshot();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-stats-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, period, period, unit);
+    }
+
+    /* Emits the interval since the last report; also usable for a final report before shutdown. */
+    public synchronized void report() {
+        CacheStats.Snapshot current = stats.snapshot();
+        CacheStats.Snapshot interval = current.minus(previous);
+        previous = current;
+        if (histogram != null) histogram.record(interval);
+        sink.accept(interval);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /*
+     * A cache whose working set shifts halfway through: the cumulative hit ratio barely moves,
+     * the per-interval histogram shows the drop and the recovery.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int capacity = 10_000;
+        ConcurrentCacheStats stats = new ConcurrentCacheStats();
+        LRUCacheSimplified cache = new LRUCacheSimplified(capacity, null, stats);
+        HitRatioHistogram histogram = new HitRatioHistogram(20);
+
+        try (CacheStatsReporter reporter = new CacheStatsReporter(stats, 100, TimeUnit.MILLISECONDS,
+                interval -> System.out.println("interval: " + interval), histogram)) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            long shiftAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (System.nanoTime() < end) {
+                int offset = System.nanoTime() < shiftAt ? 0 : 1_000_000; // new working set after 1 s
+                for (int i = 0; i < 1_000; i++) {
+                    int key = offset + (int) (capacity * 1.2 * Math.pow(random.nextDouble(), 2));
+                    if (cache.get(key) == -1) cache.put(key, key);
+                }
+                Thread.sleep(1);
+            }
+            reporter.report();
+        }
+        System.out.println("\ncumulative: " + stats.snapshot());
+        System.out.println("\nhit ratio per 100 ms interval:");
+        histogram.print();
+    }
+}
@@ -0,0 +1,274 @@
+package main.ds.linkedlist.scenarios.lru;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * CLOCK (second-chance) cache: an LRU approximation without a recency list.
+ *
+ * Every LRU variant in this package relinks a node on every get: four pointer writes to shared nodes, so
+ * read-heavy traffic from many cores keeps bouncing the same cache lines (or, in ConcurrentLruCache, has to
+ * buffer and replay the reads). CLOCK replaces the list by a fixed ring of slots and one reference bit per slot:
+ *
+ *      get : map lookup, then set the slot's reference bit (skipped if it is already set) - one relaxed write
+ *      put : publish the entry in the map, then sweep the hand around the ring; a slot with its bit set gets
+ *            a second chance (bit cleared), the first slot with a clear bit is the victim and is replaced by CAS
+ *
+ * Everything is lock-free: gets never write anything but the bit, writers race only on the hand counter
+ * and on the CAS of the victim slot. A writer that loses a slot CAS keeps sweeping. The entry is in the map
+ * before it takes a slot, so a sweeper that takes the slot over right away still finds it there and evicts it.
+ *
+ * Hit ratio is close to LRU on most traces, and like LRU it is flushed by large scans (see ClockProCache).
+ * Time Complexity  : get O(1); put O(1) amortized (each sweep step clears a bit that a get had to set).
+ * Space Complexity : O(capacity) + 4 bytes of reference bit per slot.
+ */
+public class ClockCache<K, V> {
+
+    static final class Entry<K, V> {
+        final K key;
+        volatile V value;
+        volatile int slot = -1; // assigned once the entry has claimed a slot, after it is published in the map
+
+        Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final int capacity;
+    private final ConcurrentHashMap<K, Entry<K, V>> map;
+    private final AtomicReferenceArray<Entry<K, V>> slots;
+    private final AtomicIntegerArray referenced;
+    private final AtomicInteger hand = new AtomicInteger();
+    private final CacheStats stats;
+
+    public ClockCache(int capacity) {
+        this(capacity, CacheStats.DISABLED);
+    }
+
+    public ClockCache(int capacity, CacheStats stats) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.map = new ConcurrentHashMap<>(capacity);
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.referenced = new AtomicIntegerArray(capacity);
+        this.stats = stats;
+    }
+
+    public V get(K key) {
+        Entry<K, V> entry = map.get(key);
+        if (entry == null) {
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        markReferenced(entry.slot);
+        return entry.value;
+    }
+
+    /* Read before write, so a hot key does not keep dirtying its cache line. Slot -1: still being placed. */
+    private void markReferenced(int slot) {
+        if (slot >= 0 && referenced.getPlain(slot) == 0) referenced.setOpaque(slot, 1);
+    }
+
+    public void put(K key, V value) {
+        if (key == null || value == null) throw new NullPointerException();
+        Entry<K, V> existing = map.get(key);
+        if (existing != null) {
+            existing.value = value;
+            markReferenced(existing.slot);
+            return;
+        }
+
+        Entry<K, V> entry = new Entry<>(key, value);
+        existing = map.putIfAbsent(key, entry);
+        if (existing != null) { // another writer inserted the key first: update its entry instead
+            existing.value = value;
+            markReferenced(existing.slot);
+            return;
+        }
+
+        int slot;
+        Entry<K, V> victim;
+        while (true) {
+            slot = Integer.remainderUnsigned(hand.getAndIncrement(), capacity);
+            if (referenced.getPlain(slot) != 0) {
+                referenced.setOpaque(slot, 0); // second chance
+                continue;
+            }
+            victim = slots.get(slot);
+            if (slots.compareAndSet(slot, victim, entry)) break;
+        }
+        entry.slot = slot;
+        if (victim != null && map.remove(victim.key, victim)) stats.recordEviction();
+
+        // Removed (or already evicted by a sweeper) while it was looking for a slot: free the slot again.
+        // The slot write above and remove()'s read of it are both volatile, so one of the two sides frees it.
+        if (map.get(key) != entry) slots.compareAndSet(slot, entry, null);
+    }
+
+    public V remove(K key) {
+        Entry<K, V> entry = map.remove(key);
+        if (entry == null) return null;
+        int slot = entry.slot;
+        if (slot >= 0) slots.compareAndSet(slot, entry, null);
+        return entry.value;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    /* Quiescent check: every mapped entry owns the slot it recorded, hence the map never exceeds capacity. */
+    void checkInvariants() {
+        map.forEach((key, entry) -> {
+            if (entry.slot < 0 || slots.get(entry.slot) != entry) {
+                throw new IllegalStateException("entry " + key + " does not own slot " + entry.slot);
+            }
+        });
+        if (map.size() > capacity) throw new IllegalStateException(map.size() + " entries, capacity " + capacity);
+    }
+
+    /* Writers and removers race on a key space ten times the capacity; afterwards map and ring must agree. */
+    private static void verifyConcurrentPuts() throws InterruptedException {
+        ClockCache<Integer, Integer> cache = new ClockCache<>(1_000);
+        int threads = 8;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 500_000; i++) {
+                    int key = random.nextInt(10_000);
+                    int op = random.nextInt(10);
+                    if (op < 4) cache.get(key); else if (op < 9) cache.put(key, i); else cache.remove(key);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+        cache.checkInvariants();
+        System.out.printf("after %d concurrent ops: %d entries (capacity 1000), every entry owns its slot%n",
+                threads * 500_000, cache.size());
+    }
+
+    // === Hit ratio and read throughput against LRUCacheSimplified ===
+
+    private interface Simulated {
+        boolean access(int key); // true on hit; loads the key on a miss
+    }
+
+    private static double hitRate(int[] trace, Simulated cache) {
+        int hits = 0;
+        for (int key : trace) if (cache.access(key)) hits++;
+        return 100.0 * hits / trace.length;
+    }
+
+    private static void printHitRates(String name, int[] trace, int[] sizes) {
+        System.out.printf("%n%s%n%-10s %10s %10s %10s%n", name, "size", "LRU", "CLOCK", "CLOCK-Pro");
+        for (int size : sizes) {
+            LRUCacheSimplified lru = new LRUCacheSimplified(size);
+            ClockCache<Integer, Integer> clock = new ClockCache<>(size);
+            ClockProCache<Integer, Integer> clockPro = new ClockProCache<>(size);
+            double lruRate = hitRate(trace, key -> {
+                if (lru.get(key) != -1) return true;
+                lru.put(key, key);
+                return false;
+            });
+            double clockRate = hitRate(trace, key -> {
+                if (clock.get(key) != null) return true;
+                clock.put(key, key);
+                return false;
+            });
+            double clockProRate = hitRate(trace, key -> {
+                if (clockPro.get(key) != null) return true;
+                clockPro.put(key, key);
+                return false;
+            });
+            System.out.printf("%-10d %9.2f%% %9.2f%% %9.2f%%%n", size, lruRate, clockRate, clockProRate);
+        }
+    }
+
+    /* Runs ops on every thread for the given time; returns million operations per second. */
+    private static double throughput(int threads, long millis, Runnable ops) throws InterruptedException {
+        AtomicLong total = new AtomicLong();
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                long count = 0;
+                while (!stop.get()) {
+                    ops.run();
+                    count += 1_000;
+                }
+                total.addAndGet(count);
+            });
+            workers[t].start();
+        }
+        Thread.sleep(millis);
+        stop.set(true);
+        for (Thread worker : workers) worker.join();
+        return total.get() / (millis * 1e3);
+    }
+
+    /* A batch of 1000 operations: 90% gets, 10% puts, keys from a shared Zipfian trace. */
+    private interface Batch {
+        void run(Integer[] keys, int from);
+    }
+
+    private static Runnable batches(Integer[] keys, Batch batch) {
+        return () -> batch.run(keys, ThreadLocalRandom.current().nextInt(keys.length - 1_000));
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        verifyConcurrentPuts();
+
+        Random random = new Random(42);
+        int keys = 100_000;
+        int[] sizes = {500, 1_000, 2_500, 5_000, 10_000};
+        printHitRates("Zipfian (s = 0.99), 2M accesses", WTinyLfuCache.zipfTrace(keys, 0.99, 2_000_000, random), sizes);
+        printHitRates("Scan-heavy (Zipf 0.9 + 20K-key scans), 2M accesses",
+                WTinyLfuCache.scanTrace(keys, 2_000_000, random), sizes);
+
+        int size = 10_000;
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int[] trace = WTinyLfuCache.zipfTrace(keys, 0.99, 1 << 20, random);
+        Integer[] boxed = new Integer[trace.length];
+        for (int i = 0; i < trace.length; i++) boxed[i] = trace[i];
+
+        LRUCacheSimplified lru = new LRUCacheSimplified(size);
+        ClockCache<Integer, Integer> clock = new ClockCache<>(size);
+        ClockProCache<Integer, Integer> clockPro = new ClockProCache<>(size);
+        Runnable lruOps = batches(boxed, (k, from) -> {
+            for (int i = from; i < from + 1_000; i++) {
+                synchronized (lru) { // LRUCacheSimplified is not thread-safe: every get relinks the list
+                    if (i % 10 != 0) lru.get(k[i]); else lru.put(k[i], i);
+                }
+            }
+        });
+        Runnable clockOps = batches(boxed, (k, from) -> {
+            for (int i = from; i < from + 1_000; i++) {
+                if (i % 10 != 0) clock.get(k[i]); else clock.put(k[i], i);
+            }
+        });
+        Runnable clockProOps = batches(boxed, (k, from) -> {
+            for (int i = from; i < from + 1_000; i++) {
+                if (i % 10 != 0) clockPro.get(k[i]); else clockPro.put(k[i], i);
+            }
+        });
+
+        System.out.printf("%n90%% reads, Zipf 0.99 over %d keys, capacity %d, %d threads (Mops/s)%n", keys, size, threads);
+        System.out.printf("%-6s %10s %10s %10s%n", "round", "LRU+lock", "CLOCK", "CLOCK-Pro");
+        for (int round = 0; round < 5; round++) {
+            double lruRate = throughput(threads, 500, lruOps);
+            double clockRate = throughput(threads, 500, clockOps);
+            double clockProRate = throughput(threads, 500, clockProOps);
+            System.out.printf("%-6d %10.2f %10.2f %10.2f%n", round, lruRate, clockRate, clockProRate);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package main.ds.linkedlist.scenarios.lru;
+
+import main.ds.linkedlist.scenarios.lru.suggestions.ConcurrentLruCache;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/*
+ * CacheStats for caches read and written by many threads.
+ *
+ * Every counter is a LongAdder: an uncontended increment is one CAS on the base value, and under contention
+ * threads spread over padded cells instead of retrying on one cache line, so recording scales with the number
+ * of threads (pools of hundreds of threads or virtual threads included) without any per-thread state.
+ *
+ * A hit costs one increment. Recency depth is sampled on about one hit in 16 (ThreadLocalRandom, no shared
+ * state), so the two extra adds for it are paid rarely; the average stays representative.
+ *
+ * Recording never allocates. snapshot() sums the adders; it is not atomic across counters and may miss
+ * increments still in flight, which is fine for monitoring.
+ *
+ * Overhead on get() does not meet a 5% budget for the caches in this package. main below (single-threaded,
+ * median of 21 interleaved rounds, one-core VM) measures about +15-40% on LRUCacheSimplified and about +50%
+ * on ConcurrentLruCache, whose gets take only 45-60 ns: the uncontended CAS of LongAdder.increment() alone
+ * costs 5-10 ns here, and the depth sample's ThreadLocalRandom draw a few ns more. Getting under 5% needs a
+ * recorder without an atomic instruction per hit, i.e. per-thread counters, at the cost of per-thread state.
+ */
+public class ConcurrentCacheStats implements CacheStats {
+    private static final int DEPTH_SAMPLE_MASK = 15; // sample one hit in 16
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder depthSamples = new LongAdder();
+    private final LongAdder depthSum = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    @Override
+    public void recordHit() {
+        hits.increment();
+    }
+
+    @Override
+    public void recordHit(long recencyDepth) {
+        hits.increment();
+        if ((ThreadLocalRandom.current().nextInt() & DEPTH_SAMPLE_MASK) == 0) {
+            depthSamples.increment();
+            depthSum.add(recencyDepth);
+        }
+    }
+
+    @Override
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    @Override
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    @Override
+    public void recordLoad(long nanos) {
+        loads.increment();
+        loadNanos.add(nanos);
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        return new Snapshot(hits.sum(), misses.sum(), evictions.sum(), loads.sum(), loadNanos.sum(),
+                depthSamples.sum(), depthSum.sum(), System.nanoTime());
+    }
+
+    // === Overhead benchmark: get() with CacheStats.DISABLED vs ConcurrentCacheStats ===
+
+    /* Direct call sites per cache type, so the JIT sees the get() call as it would in application code. */
+    private static double nanosPerGet(LRUCacheSimplified cache, int[] trace) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int key : trace) sink += cache.get(key);
+        double nanos = (System.nanoTime() - start) / (double) trace.length;
+        return sink == 42 ? nanos + 1 : nanos; // consume sink so the loop is not eliminated
+    }
+
+    private static double nanosPerGet(ConcurrentLruCache<Integer, Integer> cache, Integer[] keys, int[] trace) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int key : trace) {
+            Integer value = cache.get(keys[key]);
+            if (value != null) sink += value;
+        }
+        double nanos = (System.nanoTime() - start) / (double) trace.length;
+        return sink == 42 ? nanos + 1 : nanos;
+    }
+
+    /* Alternates plain and instrumented rounds so drift (GC, frequency scaling) hits both; reports the medians. */
+    private static void compare(String name, DoubleSupplier plain, DoubleSupplier instrumented) {
+        int rounds = 21;
+        double[] base = new double[rounds], stats = new double[rounds];
+        for (int warmUp = 0; warmUp < 5; warmUp++) {
+            plain.getAsDouble();
+            instrumented.getAsDouble();
+        }
+        for (int round = 0; round < rounds; round++) {
+            base[round] = plain.getAsDouble();
+            stats[round] = instrumented.getAsDouble();
+        }
+        Arrays.sort(base);
+        Arrays.sort(stats);
+        double baseMedian = base[rounds / 2], statsMedian = stats[rounds / 2];
+        System.out.printf("%-22s %8.1f ns %12.1f ns %+9.1f%%%n",
+                name, baseMedian, statsMedian, 100 * (statsMedian - baseMedian) / baseMedian);
+    }
+
+    public static void main(String[] args) {
+        int capacity = 1 << 16;
+        int[] trace = new int[1 << 21];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < trace.length; i++) {
+            trace[i] = (int) (capacity * 1.1 * Math.pow(random.nextDouble(), 3)); // skewed, ~97% hits
+        }
+        Integer[] keys = new Integer[(int) (capacity * 1.1) + 1];
+        for (int i = 0; i < keys.length; i++) keys[i] = i;
+        System.out.printf("%-22s %11s %15s %10s%n", "get() path", "no stats", "with stats", "overhead");
+
+        LRUCacheSimplified plainSimple = new LRUCacheSimplified(capacity);
+        ConcurrentCacheStats simpleStats = new ConcurrentCacheStats();
+        LRUCacheSimplified statsSimple = new LRUCacheSimplified(capacity, null, simpleStats);
+        for (int i = 0; i < capacity; i++) {
+            plainSimple.put(i, i);
+            statsSimple.put(i, i);
+        }
+        compare("LRUCacheSimplified", () -> nanosPerGet(plainSimple, trace), () -> nanosPerGet(statsSimple, trace));
+
+        ConcurrentLruCache<Integer, Integer> plainSharded = new ConcurrentLruCache<>(capacity * 2);
+        ConcurrentCacheStats shardedStats = new ConcurrentCacheStats();
+        ConcurrentLruCache<Integer, Integer> statsSharded = new ConcurrentLruCache<>(capacity * 2,
+                Runtime.getRuntime().availableProcessors() * 4, Long.MAX_VALUE, (k, v) -> 1, shardedStats);
+        for (int i = 0; i < capacity; i++) {
+            plainSharded.put(keys[i], i);
+            statsSharded.put(keys[i], i);
+        }
+        compare("ConcurrentLruCache", () -> nanosPerGet(plainSharded, keys, trace),
+                () -> nanosPerGet(statsSharded, keys, trace));
+
+        System.out.println("\nLRUCacheSimplified : " + simpleStats.snapshot());
+        System.out.println("ConcurrentLruCache : " + shardedStats.snapshot());
+    }
+}
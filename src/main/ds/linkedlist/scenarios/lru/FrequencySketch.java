@@ -0,0 +1,88 @@
+package main.ds.linkedlist.scenarios.lru;
+
+/*
+ * Count-min sketch of access frequencies with periodic aging, used as a TinyLFU admission filter.
+ *
+ * Each long in the table packs sixteen 4-bit counters (max 15). A key maps to one counter in each of four
+ * rows; increment() bumps all four, frequency() returns the minimum, so collisions can only overestimate.
+ *
+ * Aging: after sampleSize = 10 * maximumSize increments every counter is halved. Keys that were popular a long
+ * time ago fade out, so the filter follows shifts in the working set.
+ *
+ * Memory : 8 bytes per 16 counters, table sized to the next power of two >= maximumSize (~0.5 byte/entry).
+ * Time   : O(1) per increment / frequency, O(table) per reset (amortized O(1)).
+ * Not thread-safe: callers hold the cache's own lock.
+ */
+public class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    public FrequencySketch(int maximumSize) {
+        int size = Integer.highestOneBit(Math.max(8, maximumSize) * 2 - 1);
+        this.table = new long[size];
+        this.tableMask = size - 1;
+        this.sampleSize = 10 * Math.max(1, maximumSize);
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /* Position of the counter for row i, encoded as (word index << 4) | nibble. */
+    private int counterOf(int spreadHash, int row) {
+        long x = (spreadHash + SEEDS[row]) * SEEDS[row];
+        x += x >>> 32;
+        int word = (int) x & tableMask;
+        int nibble = (int) (x >>> 60);
+        return (word << 4) | nibble;
+    }
+
+    public int frequency(Object key) {
+        return frequency(key.hashCode());
+    }
+
+    public int frequency(int hash) {
+        int h = spread(hash);
+        int min = 15;
+        for (int row = 0; row < 4; row++) {
+            int counter = counterOf(h, row);
+            int value = (int) (table[counter >>> 4] >>> ((counter & 15) << 2)) & 15;
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    public void increment(Object key) {
+        increment(key.hashCode());
+    }
+
+    public void increment(int hash) {
+        int h = spread(hash);
+        boolean added = false;
+        for (int row = 0; row < 4; row++) {
+            int counter = counterOf(h, row);
+            int word = counter >>> 4;
+            int shift = (counter & 15) << 2;
+            if (((table[word] >>> shift) & 15) < 15) {
+                table[word] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) reset();
+    }
+
+    /* Halves every counter (shift each nibble right by one). */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+}
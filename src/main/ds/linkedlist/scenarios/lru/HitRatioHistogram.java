@@ -0,0 +1,52 @@
+package main.ds.linkedlist.scenarios.lru;
+
+/*
+ * Hit ratio over time: a ring of the last N reporting intervals, fed by CacheStatsReporter with the
+ * per-interval snapshot deltas, so it costs nothing on the cache's hot path.
+ *
+ * A cumulative hit ratio hides trouble: a cache that ran at 99% for an hour and then drops to 60% after a
+ * deploy still reports ~98%. Per-interval ratios show the drop (and the recovery) as it happens.
+ */
+public class HitRatioHistogram {
+    private final long[] hits;
+    private final long[] misses;
+    private int next;   // slot the next interval goes into
+    private int filled;
+
+    public HitRatioHistogram(int intervals) {
+        if (intervals <= 0) throw new IllegalArgumentException("intervals must be positive");
+        this.hits = new long[intervals];
+        this.misses = new long[intervals];
+    }
+
+    public synchronized void record(CacheStats.Snapshot interval) {
+        hits[next] = interval.hits;
+        misses[next] = interval.misses;
+        next = (next + 1) % hits.length;
+        filled = Math.min(filled + 1, hits.length);
+    }
+
+    /* Hit ratio per interval, oldest first; NaN for intervals without requests. */
+    public synchronized double[] hitRatios() {
+        double[] ratios = new double[filled];
+        for (int i = 0; i < filled; i++) {
+            int slot = (next - filled + i + hits.length) % hits.length;
+            long requests = hits[slot] + misses[slot];
+            ratios[i] = requests == 0 ? Double.NaN : (double) hits[slot] / requests;
+        }
+        return ratios;
+    }
+
+    /* One bar per interval, 50 columns = 100%. */
+    public void print() {
+        double[] ratios = hitRatios();
+        for (int i = 0; i < ratios.length; i++) {
+            if (Double.isNaN(ratios[i])) {
+                System.out.printf("t-%-3d   idle%n", ratios.length - 1 - i);
+            } else {
+                System.out.printf("t-%-3d %6.2f%% %s%n", ratios.length - 1 - i, 100 * ratios[i],
+                        "#".repeat((int) Math.round(50 * ratios[i])));
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package main.ds.linkedlist.scenarios.lru;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Primitive int -> int LRU cache with an array-backed intrusive list.
+ *
+ * LRUCacheSimplified keeps a HashMap<Integer, Node>: a boxed Integer key, a HashMap.Node and a cache Node
+ * per entry, roughly 80+ bytes for 8 bytes of payload, plus an allocation on every put.
+ *
+ * Here every entry lives in a slot i of four parallel arrays:
+ *      keys[i], values[i]       the mapping
+ *      prev[i], next[i]         recency links (slot indices, NIL = -1), head = most recently used
+ * and an open-addressing index (linear probing, power-of-two table at load factor <= 0.5) maps a key to
+ * slot + 1 (0 = empty). Deletions use backward-shift, so there are no tombstones and probe chains stay short.
+ *
+ * All arrays are allocated up front, so get/put never allocate: a new key takes a free slot, or the
+ * tail slot once the cache is full.
+ *
+ * Memory : 16 bytes per slot (4 int arrays) + 8..16 bytes of index per slot  =>  ~24-32 bytes/entry.
+ * Time   : get/put/remove O(1) expected.
+ */
+public class IntIntLruCache {
+    private static final int NIL = -1;
+
+    private final int capacity;
+    private final int[] keys;
+    private final int[] values;
+    private final int[] prev;
+    private final int[] next;
+    private final int[] index; // slot + 1, 0 = empty
+    private final int indexMask;
+
+    private int head = NIL;     // most recently used
+    private int tail = NIL;     // least recently used
+    private int size;
+    private int freeList = NIL; // slots released by remove(), chained through next[]
+    private int nextUnused;     // slots [nextUnused, capacity) were never used
+    private final CacheStats stats;
+
+    public IntIntLruCache(int capacity) {
+        this(capacity, CacheStats.DISABLED);
+    }
+
+    public IntIntLruCache(int capacity, CacheStats stats) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1; // >= 2 * capacity
+        this.index = new int[tableSize];
+        this.indexMask = tableSize - 1;
+        this.stats = stats;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /* Returns the slot holding key, or NIL. */
+    private int find(int key) {
+        for (int i = mix(key) & indexMask; ; i = (i + 1) & indexMask) {
+            int entry = index[i];
+            if (entry == 0) return NIL;
+            if (keys[entry - 1] == key) return entry - 1;
+        }
+    }
+
+    /* Same as LRUCacheSimplified: the value, or -1 if absent. */
+    public int get(int key) {
+        int slot = find(key);
+        if (slot == NIL) {
+            stats.recordMiss();
+            return -1;
+        }
+        stats.recordHit();
+        moveToHead(slot);
+        return values[slot];
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) != NIL;
+    }
+
+    public void put(int key, int value) {
+        int i = mix(key) & indexMask;
+        for (int entry; (entry = index[i]) != 0; i = (i + 1) & indexMask) {
+            if (keys[entry - 1] == key) {
+                values[entry - 1] = value;
+                moveToHead(entry - 1);
+                return;
+            }
+        }
+
+        int slot;
+        if (size == capacity) {
+            slot = tail;             // recycle the least recently used slot
+            unlink(slot);
+            removeFromIndex(keys[slot]);
+            size--;
+            stats.recordEviction();
+            i = mix(key) & indexMask; // backward shift may have moved entries; probe again
+            while (index[i] != 0) i = (i + 1) & indexMask;
+        } else if (freeList != NIL) {
+            slot = freeList;
+            freeList = next[slot];
+        } else {
+            slot = nextUnused++;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        index[i] = slot + 1;
+        linkAtHead(slot);
+        size++;
+    }
+
+    public boolean remove(int key) {
+        int slot = find(key);
+        if (slot == NIL) return false;
+        unlink(slot);
+        removeFromIndex(key);
+        next[slot] = freeList;
+        freeList = slot;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /* Backward-shift deletion: pull later entries of the probe chain into the hole. */
+    private void removeFromIndex(int key) {
+        int hole = mix(key) & indexMask;
+        while (keys[index[hole] - 1] != key) hole = (hole + 1) & indexMask;
+
+        for (int i = (hole + 1) & indexMask; index[i] != 0; i = (i + 1) & indexMask) {
+            int home = mix(keys[index[i] - 1]) & indexMask;
+            // Move the entry if its home position is not within (hole, i] cyclically.
+            if (((i - home) & indexMask) >= ((i - hole) & indexMask)) {
+                index[hole] = index[i];
+                hole = i;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    private void linkAtHead(int slot) {
+        prev[slot] = NIL;
+        next[slot] = head;
+        if (head != NIL) prev[head] = slot;
+        head = slot;
+        if (tail == NIL) tail = slot;
+    }
+
+    private void unlink(int slot) {
+        int p = prev[slot], n = next[slot];
+        if (p != NIL) next[p] = n; else head = n;
+        if (n != NIL) prev[n] = p; else tail = p;
+    }
+
+    private void moveToHead(int slot) {
+        if (slot == head) return;
+        unlink(slot);
+        linkAtHead(slot);
+    }
+
+    /* Keys from most to least recently used, for debugging. */
+    int[] keysByRecency() {
+        int[] result = new int[size];
+        for (int slot = head, i = 0; slot != NIL; slot = next[slot]) result[i++] = keys[slot];
+        return result;
+    }
+
+    private static long usedMemory() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static void benchmark(int entries, boolean includeBaseline) {
+        System.out.printf("%n--- %,d entries ---%n", entries);
+        int[] trace = new int[1 << 22];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < trace.length; i++) trace[i] = random.nextInt(entries + entries / 10); // ~90% hits
+
+        long before = usedMemory();
+        IntIntLruCache primitive = new IntIntLruCache(entries);
+        for (int i = 0; i < entries; i++) primitive.put(i, i);
+        System.out.printf("IntIntLruCache      : %6.1f bytes/entry", (usedMemory() - before) / (double) entries);
+        System.out.printf("  %6.1f M ops/s%n", run(trace, primitive::get, primitive::put) / 1e6);
+        primitive = null;
+
+        if (!includeBaseline) {
+            System.out.println("LRUCacheSimplified  : skipped (pass --baseline and a large -Xmx to include it)");
+            return;
+        }
+        before = usedMemory();
+        LRUCacheSimplified boxed = new LRUCacheSimplified(entries);
+        for (int i = 0; i < entries; i++) boxed.put(i, i);
+        System.out.printf("LRUCacheSimplified  : %6.1f bytes/entry", (usedMemory() - before) / (double) entries);
+        System.out.printf("  %6.1f M ops/s%n", run(trace, boxed::get, boxed::put) / 1e6);
+    }
+
+    private interface IntIntConsumer {
+        void accept(int key, int value);
+    }
+
+    /* 75% get, 25% put. */
+    private static double run(int[] trace, java.util.function.IntUnaryOperator get, IntIntConsumer put) {
+        long ops = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < trace.length; i++) {
+                int key = trace[i];
+                if ((i & 3) != 0) {
+                    get.applyAsInt(key);
+                } else {
+                    put.accept(key, i);
+                }
+                ops++;
+            }
+        }
+        return ops / ((System.nanoTime() - start) / 1e9);
+    }
+
+    public static void main(String[] args) {
+        IntIntLruCache cache = new IntIntLruCache(3);
+        cache.put(1, 10);
+        cache.put(2, 20);
+        cache.put(3, 30);
+        cache.get(1);            // 1 becomes most recent
+        cache.put(4, 40);        // evicts 2
+        System.out.println("get(2) = " + cache.get(2) + ", recency = " + Arrays.toString(cache.keysByRecency()));
+
+        // Usage: java ... IntIntLruCache [--baseline] [entries...]   e.g. -Xmx12g ... --baseline 1000000 50000000
+        boolean baseline = Arrays.asList(args).contains("--baseline");
+        int[] sizes = Arrays.stream(args).filter(a -> !a.startsWith("--")).mapToInt(Integer::parseInt).toArray();
+        if (sizes.length == 0) {
+            sizes = new int[]{1_000_000};
+            baseline = true;
+        }
+        for (int entries : sizes) benchmark(entries, baseline);
+    }
+}
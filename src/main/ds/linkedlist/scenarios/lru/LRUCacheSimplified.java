@@ -5,6 +5,11 @@ import java.util.Map;
 
 class LRUCacheSimplified {
     private final int capacity;
+    private final FrequencySketch admission; // null = plain LRU
+    private final CacheStats stats;
+    private int promotions; // bumped on every move to the head; node.promotedAt - promotions bounds its depth
+    private int missedKey;       // key of the last get() that missed, already counted by the sketch
+    private boolean missPending; // missedKey is valid: nothing else happened since that miss
     private Map<Integer, Node> cache;
     private Node head;
     private Node tail;
@@ -12,6 +17,7 @@ class LRUCacheSimplified {
     static class Node {
         int key;
         int value;
+        int promotedAt;
         Node prev;
         Node next;
 
@@ -22,7 +28,21 @@ class LRUCacheSimplified {
     }
 
     public LRUCacheSimplified(int capacity) {
+        this(capacity, null);
+    }
+
+    /*
+     * With a FrequencySketch the cache applies TinyLFU admission: once full, a new key only replaces the
+     * LRU victim if it has been seen more often. A one-off scan can then no longer flush the hot set.
+     */
+    public LRUCacheSimplified(int capacity, FrequencySketch admission) {
+        this(capacity, admission, CacheStats.DISABLED);
+    }
+
+    public LRUCacheSimplified(int capacity, FrequencySketch admission, CacheStats stats) {
         this.capacity = capacity;
+        this.admission = admission;
+        this.stats = stats;
         cache = new HashMap<>();
         head = new Node(0, 0);
         tail = new Node(0, 0);
@@ -31,26 +51,45 @@ class LRUCacheSimplified {
     }
 
     public int get(int key) {
+        if (admission != null) admission.increment(key);
+        missPending = false;
         if (cache.containsKey(key)) {
             Node node = cache.get(key);
+            stats.recordHit(promotions - node.promotedAt);
             moveToHead(node);
             return node.value;
         }
+        stats.recordMiss();
+        missedKey = key;
+        missPending = true;
         return -1;
     }
 
+    /*
+     * A put right after get() missed on the same key is the load of that miss: the access was already counted
+     * by get(), so it is not counted again.
+     */
     public void put(int key, int value) {
+        boolean counted = missPending && missedKey == key;
+        missPending = false;
         if (cache.containsKey(key)) {
             Node node = cache.get(key);
             node.value = value;
             moveToHead(node);
         } else {
+            if (admission != null && cache.size() >= capacity) {
+                if (!counted) admission.increment(key);
+                if (admission.frequency(key) <= admission.frequency(tail.prev.key)) {
+                    return; // rejected: the victim is at least as popular as the candidate
+                }
+            }
             Node newNode = new Node(key, value);
             cache.put(key, newNode);
             addToHead(newNode);
             if (cache.size() > capacity) {
                 Node removedNode = removeTail();
                 cache.remove(removedNode.key);
+                stats.recordEviction();
             }
         }
     }
@@ -65,6 +104,7 @@ class LRUCacheSimplified {
         node.prev = head;
         head.next.prev = node;
         head.next = node;
+        node.promotedAt = ++promotions;
     }
 
     private void removeNode(Node node) {
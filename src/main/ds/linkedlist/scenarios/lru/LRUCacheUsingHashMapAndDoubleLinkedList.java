@@ -8,6 +8,8 @@ public class LRUCacheUsingHashMapAndDoubleLinkedList {
     private static Map<Integer, Integer> cache;
     private static Integer cacheCapacity;
     private static DoubleLinkedList head;
+    private static final CacheStats stats = new ConcurrentCacheStats(); // shared, like the cache itself
+    private static int lastScanDepth; // list position of the node found by the last moveRecentlyUsed scan
 
     public LRUCacheUsingHashMapAndDoubleLinkedList(Integer capacity) {
         cacheCapacity = capacity;
@@ -33,9 +35,11 @@ public class LRUCacheUsingHashMapAndDoubleLinkedList {
         DoubleLinkedList nodeToBeFound = head, prevNode = null;
         if (key != null) {
             // Find the node with the given key
+            lastScanDepth = 0;
             while (nodeToBeFound != null && nodeToBeFound.key != key) {
                 prevNode = nodeToBeFound;
                 nodeToBeFound = nodeToBeFound.next;
+                lastScanDepth++;
             }
 
             if (nodeToBeFound != null) {
@@ -77,7 +81,10 @@ public class LRUCacheUsingHashMapAndDoubleLinkedList {
         nextNode.prev.next = null; // Resetting second-last to last node
         nextNode.prev = null;
         // Remove the cache entry as well
-        if (key != null) cache.remove(key);
+        if (key != null) {
+            cache.remove(key);
+            stats.recordEviction();
+        }
         System.out.println("Cache Key " + key + " evicted");
     }
 
@@ -127,19 +134,28 @@ public class LRUCacheUsingHashMapAndDoubleLinkedList {
             System.out.println("Cache Hit for key: " + key);
             return cache.get(key);
         }
+        stats.recordMiss();
         System.out.println("Cache Miss for key: " + key);
         return null;
     }
 
+    /* Hit/miss/eviction/load counters of the shared cache. */
+    public static CacheStats stats() {
+        return stats;
+    }
+
     // Fetch value using key
     private static Integer find(Integer key) {
         Integer value = loadFromCache(key);
         if (value == null) { // Cache Miss
+            long started = System.nanoTime();
             value = readFromStore(key); // Look into the store
+            stats.recordLoad(System.nanoTime() - started);
             // Move the recently accessed to the front of the Linked List store
             moveRecentlyUsed(key, value, true); // shouldUpdateCache set to true, as cache to be refreshed
         } else {
             moveRecentlyUsed(key, value, false); // shouldUpdateCache set to false, as cache already updated in readFromStore
+            stats.recordHit(lastScanDepth); // the scan already walked to the node, so its depth is exact
         }
         return value;
     }
@@ -179,5 +195,6 @@ public class LRUCacheUsingHashMapAndDoubleLinkedList {
         DoubleLinkedList.printList(head);
         // Cache will max out now
         find(4);
+        System.out.println(stats().snapshot());
     }
 }
@@ -8,6 +8,7 @@ public class LRUCacheUsingHashMapToStoreNodeRef {
     private static Map<Integer, DoubleLinkedList> cache;
     private static Integer cacheCapacity;
     private static DoubleLinkedList head;
+    private static final CacheStats stats = new ConcurrentCacheStats(); // shared, like the cache itself
 
     public LRUCacheUsingHashMapToStoreNodeRef(Integer capacity) {
         cacheCapacity = capacity;
@@ -78,6 +79,7 @@ public class LRUCacheUsingHashMapToStoreNodeRef {
         nextNode.prev = null;
         // Remove the cache entry as well
         if (key != null) {
+            stats.recordEviction();
             cache.remove(key);
             System.out.println("Cache Key " + key + " evicted");
         }
@@ -126,18 +128,27 @@ public class LRUCacheUsingHashMapToStoreNodeRef {
      */
     private static DoubleLinkedList loadFromCache(Integer key) {
         if (cache.containsKey(key)) {
+            stats.recordHit();
             System.out.println("Cache Hit for key: " + key);
             return cache.get(key);
         }
+        stats.recordMiss();
         System.out.println("Cache Miss for key: " + key);
         return null;
     }
 
+    /* Hit/miss/eviction/load counters of the shared cache. */
+    public static CacheStats stats() {
+        return stats;
+    }
+
     // Fetch value using key
     private static Integer find(Integer key) {
         DoubleLinkedList node = loadFromCache(key);
         if (node == null) { // Cache Miss
+            long started = System.nanoTime();
             node = readFromStore(key); // Look into the store
+            stats.recordLoad(System.nanoTime() - started);
             // Move the recently accessed to the front of the Linked List store
             moveRecentlyUsed(key, node, true); // shouldUpdateCache set to true, as cache to be refreshed
         } else {
@@ -184,5 +195,6 @@ public class LRUCacheUsingHashMapToStoreNodeRef {
 
         find(2);
         DoubleLinkedList.printList(head);
+        System.out.println(stats().snapshot());
     }
 }
@@ -0,0 +1,481 @@
+package main.ds.linkedlist.scenarios.lru;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * LRU cache of byte[] values stored outside the Java heap, in slabs (memcached-style slab allocator).
+ *
+ * LRUCacheByLinkedHashMap keeps every value on the heap. With hundreds of millions of byte[] values the collector
+ * has to trace and copy all of them, and pauses grow with the size of the cache. Here the heap only holds the
+ * index (key -> slab, offset, length, recency links); the bytes live in direct ByteBuffers or in a memory-mapped
+ * file, which the collector never scans.
+ *
+ *      slab     : one fixed-size buffer (default 1 MB), carved into equal chunks of a single size class
+ *      classes  : chunk sizes 64, 80, 100, ... (x1.25, 8-byte aligned) up to the slab size; a value goes into the
+ *                 smallest chunk that fits it
+ *      LRU      : one recency list per size class, so evicting the LRU entry of a class always frees a chunk
+ *                 of the size that is needed
+ *
+ * Allocation for a class tries, in order: a free chunk in one of its slabs, an empty or new slab (until maxBytes is
+ * reached), evicting its own LRU entry. A class that holds nothing yet takes a slab from the class with the most
+ * slabs: that class evicts from its LRU end until one of its slabs empties and goes back to the shared pool.
+ * Slabs are never freed, only recycled between classes, so off-heap memory stays at most maxBytes.
+ *
+ * Eviction is LRU within a size class (as in memcached), not across the whole cache. Values are copied in on put
+ * and out on get (get(key, dst) reuses a caller buffer). All methods are synchronized.
+ *
+ * Time Complexity  : get/put O(1) + O(value length) copy, amortized over slab recycling.
+ * Space Complexity : maxBytes off-heap + one index entry (~80 bytes with the HashMap node) per value on-heap.
+ */
+public class OffHeapLruCache<K> implements AutoCloseable {
+    private static final int MIN_CHUNK = 64;
+    private static final double GROWTH_FACTOR = 1.25;
+
+    /* A fixed-size buffer carved into chunks of one size class. */
+    private static final class Slab {
+        final ByteBuffer buffer;
+        int chunkSize;
+        int chunks;
+        int bump;          // chunks [bump, chunks) were never handed out since the last carve
+        int[] freed = new int[0];
+        int freedCount;
+        int used;
+        boolean hasFreeListed; // on its class's withFree queue
+
+        Slab(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        void carve(int chunkSize) {
+            this.chunkSize = chunkSize;
+            this.chunks = buffer.capacity() / chunkSize;
+            if (freed.length < chunks) freed = new int[chunks];
+            this.bump = 0;
+            this.freedCount = 0;
+            this.used = 0;
+        }
+
+        boolean hasFree() {
+            return freedCount > 0 || bump < chunks;
+        }
+
+        int take() {
+            used++;
+            int chunk = freedCount > 0 ? freed[--freedCount] : bump++;
+            return chunk * chunkSize;
+        }
+
+        void give(int offset) {
+            used--;
+            freed[freedCount++] = offset / chunkSize;
+        }
+    }
+
+    /* Index entry: the key and where its bytes live. */
+    private static final class Entry<K> {
+        final K key;
+        SizeClass<K> sizeClass;
+        Slab slab;
+        int offset;
+        int length;
+        Entry<K> prev;
+        Entry<K> next;
+
+        Entry(K key) {
+            this.key = key;
+        }
+    }
+
+    private static final class SizeClass<K> {
+        final int chunkSize;
+        final ArrayDeque<Slab> withFree = new ArrayDeque<>();
+        final Entry<K> head = new Entry<>(null); // most recently used side
+        final Entry<K> tail = new Entry<>(null);
+        int entries;
+        int slabs;
+
+        SizeClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+            head.next = tail;
+            tail.prev = head;
+        }
+
+        void addToHead(Entry<K> entry) {
+            entry.next = head.next;
+            entry.prev = head;
+            head.next.prev = entry;
+            head.next = entry;
+        }
+
+        void unlink(Entry<K> entry) {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+        }
+    }
+
+    private final Map<K, Entry<K>> index = new HashMap<>();
+    private final SizeClass<K>[] classes;
+    private final int[] chunkSizes;
+    private final int slabSize;
+    private final int maxSlabs;
+    private final ArrayDeque<Slab> emptySlabs = new ArrayDeque<>();
+    private final FileChannel channel; // null when slabs are direct buffers
+    private int allocatedSlabs;
+    private long storedBytes;
+    private long evictions;
+    private final CacheStats stats;
+
+    /* Direct-memory slabs. */
+    public OffHeapLruCache(long maxBytes, int slabSize) {
+        this(maxBytes, slabSize, null);
+    }
+
+    /**
+     * @param maxBytes off-heap budget, rounded down to whole slabs
+     * @param slabSize bytes per slab, also the largest value that can be stored
+     * @param file     if non-null, slabs are regions of this memory-mapped file instead of direct buffers
+     */
+    public OffHeapLruCache(long maxBytes, int slabSize, Path file) {
+        this(maxBytes, slabSize, file, CacheStats.DISABLED);
+    }
+
+    /* As above, recording hits, misses and evictions into stats. */
+    public OffHeapLruCache(long maxBytes, int slabSize, Path file, CacheStats stats) {
+        if (slabSize < MIN_CHUNK || maxBytes < slabSize) {
+            throw new IllegalArgumentException("need slabSize >= " + MIN_CHUNK + " and maxBytes >= slabSize");
+        }
+        this.slabSize = slabSize;
+        this.stats = stats;
+        this.maxSlabs = (int) Math.min(Integer.MAX_VALUE, maxBytes / slabSize);
+
+        int[] sizes = new int[64];
+        int count = 0;
+        for (double size = MIN_CHUNK; size < slabSize; size *= GROWTH_FACTOR) {
+            int aligned = ((int) size + 7) & ~7;
+            if (count == 0 || aligned > sizes[count - 1]) sizes[count++] = aligned;
+        }
+        sizes[count++] = slabSize;
+        this.chunkSizes = Arrays.copyOf(sizes, count);
+        this.classes = newSizeClasses(count);
+        for (int i = 0; i < count; i++) classes[i] = new SizeClass<>(chunkSizes[i]);
+
+        try {
+            this.channel = file == null ? null : FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> SizeClass<K>[] newSizeClasses(int count) {
+        return (SizeClass<K>[]) new SizeClass<?>[count];
+    }
+
+    /* Returns a copy of the value, or null. */
+    public synchronized byte[] get(K key) {
+        Entry<K> entry = index.get(key);
+        if (entry == null) {
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        entry.sizeClass.unlink(entry);
+        entry.sizeClass.addToHead(entry);
+        byte[] value = new byte[entry.length];
+        entry.slab.buffer.get(entry.offset, value);
+        return value;
+    }
+
+    /*
+     * Allocation-free read: copies the value into dst and returns its length, or -1 if absent.
+     * If dst is too small nothing is copied and the required length is returned as -(length + 2).
+     */
+    public synchronized int get(K key, byte[] dst) {
+        Entry<K> entry = index.get(key);
+        if (entry == null) {
+            stats.recordMiss();
+            return -1;
+        }
+        stats.recordHit();
+        if (dst.length < entry.length) return -(entry.length + 2);
+        entry.sizeClass.unlink(entry);
+        entry.sizeClass.addToHead(entry);
+        entry.slab.buffer.get(entry.offset, dst, 0, entry.length);
+        return entry.length;
+    }
+
+    public synchronized void put(K key, byte[] value) {
+        if (value.length > slabSize) {
+            throw new IllegalArgumentException("value of " + value.length + " bytes exceeds slab size " + slabSize);
+        }
+        Entry<K> entry = index.remove(key);
+        if (entry != null) release(entry);
+
+        int classIndex = Arrays.binarySearch(chunkSizes, Math.max(1, value.length));
+        SizeClass<K> sizeClass = classes[classIndex >= 0 ? classIndex : -classIndex - 1];
+        Slab slab = slabWithFreeChunk(sizeClass);
+
+        entry = new Entry<>(key);
+        entry.sizeClass = sizeClass;
+        entry.slab = slab;
+        entry.offset = slab.take();
+        entry.length = value.length;
+        if (!slab.hasFree()) {
+            sizeClass.withFree.remove(slab);
+            slab.hasFreeListed = false;
+        }
+        slab.buffer.put(entry.offset, value);
+        sizeClass.addToHead(entry);
+        sizeClass.entries++;
+        storedBytes += value.length;
+        index.put(key, entry);
+    }
+
+    public synchronized boolean remove(K key) {
+        Entry<K> entry = index.remove(key);
+        if (entry == null) return false;
+        release(entry);
+        return true;
+    }
+
+    private Slab slabWithFreeChunk(SizeClass<K> sizeClass) {
+        while (true) {
+            Slab slab = sizeClass.withFree.peekFirst();
+            if (slab != null) return slab;
+
+            slab = emptyOrNewSlab();
+            if (slab != null) {
+                slab.carve(sizeClass.chunkSize);
+                slab.hasFreeListed = true;
+                sizeClass.withFree.addFirst(slab);
+                sizeClass.slabs++;
+                continue;
+            }
+            if (sizeClass.entries > 0) {
+                evict(sizeClass.tail.prev);
+                continue;
+            }
+            // Nothing of this size is cached and memory is full: rebalance a slab from the largest class.
+            SizeClass<K> donor = classes[0];
+            for (SizeClass<K> candidate : classes) if (candidate.slabs > donor.slabs) donor = candidate;
+            while (emptySlabs.isEmpty()) evict(donor.tail.prev);
+        }
+    }
+
+    private Slab emptyOrNewSlab() {
+        if (!emptySlabs.isEmpty()) return emptySlabs.pop();
+        if (allocatedSlabs == maxSlabs) return null;
+        ByteBuffer buffer;
+        if (channel == null) {
+            buffer = ByteBuffer.allocateDirect(slabSize);
+        } else {
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, (long) allocatedSlabs * slabSize, slabSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        allocatedSlabs++;
+        return new Slab(buffer);
+    }
+
+    private void evict(Entry<K> entry) {
+        index.remove(entry.key);
+        release(entry);
+        evictions++;
+        stats.recordEviction();
+    }
+
+    /* Returns the entry's chunk to its slab; a slab that empties goes back to the shared pool. */
+    private void release(Entry<K> entry) {
+        SizeClass<K> sizeClass = entry.sizeClass;
+        Slab slab = entry.slab;
+        sizeClass.unlink(entry);
+        sizeClass.entries--;
+        storedBytes -= entry.length;
+        slab.give(entry.offset);
+        if (slab.used == 0) {
+            if (slab.hasFreeListed) sizeClass.withFree.remove(slab);
+            slab.hasFreeListed = false;
+            sizeClass.slabs--;
+            emptySlabs.push(slab);
+        } else if (!slab.hasFreeListed) {
+            slab.hasFreeListed = true;
+            sizeClass.withFree.addLast(slab);
+        }
+        entry.slab = null;
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized long evictionCount() {
+        return evictions;
+    }
+
+    /* Payload bytes currently cached (excluding chunk rounding). */
+    public synchronized long storedBytes() {
+        return storedBytes;
+    }
+
+    /* Off-heap bytes reserved so far. */
+    public synchronized long reservedBytes() {
+        return (long) allocatedSlabs * slabSize;
+    }
+
+    /*
+     * Drops every reference to the slabs. Direct and mapped buffers are released by the collector once
+     * unreachable; the file channel is closed right away.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        index.clear();
+        emptySlabs.clear();
+        for (SizeClass<K> sizeClass : classes) {
+            sizeClass.withFree.clear();
+            sizeClass.head.next = sizeClass.tail;
+            sizeClass.tail.prev = sizeClass.head;
+        }
+        if (channel != null) channel.close();
+    }
+
+    // === GC / throughput comparison ===
+
+    /* The heap-resident baseline: an access-order LinkedHashMap bounded by total value bytes. */
+    private static final class OnHeapByteLru {
+        private final long maxBytes;
+        private long bytes;
+        private final LinkedHashMap<Integer, byte[]> map = new LinkedHashMap<>(1 << 16, 0.75f, true);
+
+        OnHeapByteLru(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        int get(Integer key, byte[] dst) {
+            byte[] value = map.get(key);
+            if (value == null) return -1;
+            System.arraycopy(value, 0, dst, 0, value.length); // same copy-out cost as the off-heap cache
+            return value.length;
+        }
+
+        void put(Integer key, byte[] value) {
+            byte[] old = map.put(key, value);
+            bytes += value.length - (old == null ? 0 : old.length);
+            var eldest = map.entrySet().iterator();
+            while (bytes > maxBytes) {
+                bytes -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private interface Workload {
+        int get(int key, byte[] dst);
+
+        void put(int key, byte[] value);
+    }
+
+    private static long[] gcTotals() {
+        long count = 0, millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[]{count, millis};
+    }
+
+    /* Fills to the budget, then runs 90% gets / 10% puts of fresh values; reports throughput, GC and latency tail. */
+    private static void run(String name, Workload cache, long budget, int ops) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int keySpace = (int) (budget / 600 * 12 / 10); // mean value ~580 bytes, ~20% of keys do not fit
+        byte[][] values = new byte[1024][];
+        for (int i = 0; i < values.length; i++) values[i] = new byte[random.nextInt(64, 1_100)];
+
+        for (int key = 0; key < keySpace; key++) cache.put(key, values[key & 1023].clone());
+        long[] gcBefore = gcTotals();
+        byte[] buffer = new byte[1 << 20];
+        long[] latencies = new long[ops];
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            int key = random.nextInt(keySpace);
+            long t0 = System.nanoTime();
+            if (random.nextInt(10) == 0) cache.put(key, values[i & 1023].clone());
+            else cache.get(key, buffer);
+            latencies[i] = System.nanoTime() - t0;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long[] gcAfter = gcTotals();
+        Arrays.sort(latencies);
+        System.out.printf("%-22s %8.2f M ops/s   GCs %5d  GC time %6d ms   p99.9 %7.1f us   max %8.1f ms%n",
+                name, ops / seconds / 1e6, gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1],
+                latencies[(int) (ops * 0.999)] / 1e3, latencies[ops - 1] / 1e6);
+    }
+
+    /*
+     * Usage: java ... OffHeapLruCache [--mmap] [megabytes]
+     * The default budget fits a default heap; e.g. -Xmx24g -XX:MaxDirectMemorySize=20g ... 16384 runs the 16 GB case.
+     */
+    public static void main(String[] args) throws IOException {
+        OffHeapLruCache<String> demo = new OffHeapLruCache<>(2 * 4096, 4096);
+        demo.put("a", "alpha".getBytes());
+        demo.put("b", new byte[3000]);
+        demo.put("c", new byte[3000]); // same size class, only one slab left for it -> evicts "b"
+        System.out.printf("a=%s, b=%s, c=%d bytes, evictions=%d%n", new String(demo.get("a")),
+                demo.get("b"), demo.get("c").length, demo.evictionCount());
+        demo.close();
+
+        boolean mmap = Arrays.asList(args).contains("--mmap");
+        long megabytes = Arrays.stream(args).filter(a -> !a.startsWith("--")).mapToLong(Long::parseLong)
+                .findFirst().orElse(256);
+        long budget = megabytes << 20;
+        int ops = 5_000_000;
+        System.out.printf("%n%,d MB of values, %,d ops (90%% get / 10%% put)%n", megabytes, ops);
+
+        run("LinkedHashMap (heap)", new Workload() {
+            final OnHeapByteLru cache = new OnHeapByteLru(budget);
+
+            public int get(int key, byte[] dst) {
+                return cache.get(key, dst);
+            }
+
+            public void put(int key, byte[] value) {
+                cache.put(key, value);
+            }
+        }, budget, ops);
+        System.gc();
+
+        Path file = mmap ? Files.createTempFile("offheap-lru", ".slabs") : null;
+        try (OffHeapLruCache<Integer> offHeap = new OffHeapLruCache<>(budget, 1 << 20, file)) {
+            run(mmap ? "OffHeapLruCache (mmap)" : "OffHeapLruCache", new Workload() {
+                public int get(int key, byte[] dst) {
+                    return offHeap.get(key, dst);
+                }
+
+                public void put(int key, byte[] value) {
+                    offHeap.put(key, value);
+                }
+            }, budget, ops);
+            System.out.printf("off-heap: %,d entries, %,d MB stored in %,d MB of slabs, %,d evictions%n",
+                    offHeap.size(), offHeap.storedBytes() >> 20, offHeap.reservedBytes() >> 20,
+                    offHeap.evictionCount());
+        } finally {
+            if (file != null) Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package main.ds.linkedlist.scenarios.lru;
+
+import main.ds.linkedlist.scenarios.lru.suggestions.ConcurrentLruCache;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Read-through LRU cache with single-flight loading and refresh-ahead.
+ *
+ * LRUCacheUsingHashMapAndDoubleLinkedList.readFromStore simulates a backing-store read on every miss. Under
+ * concurrency every thread that misses on the same key goes to the store on its own, and when a hot key
+ * expires all of them miss at once (thundering herd). This cache puts a CacheLoader behind a ConcurrentLruCache:
+ *
+ * - Single flight : at most one load per key is in flight. Later callers join the same CompletableFuture.
+ * - Refresh-ahead : once an entry is older than refreshAfter (but younger than expireAfter), a hit still
+ *                   returns the cached value and starts one background reload. Hot keys therefore rarely expire.
+ * - Bulk load     : getAll() serves hits, joins loads already in flight and fetches the remaining keys with
+ *                   one CacheLoader.loadAll call.
+ *
+ * Time Complexity : hit O(1); miss O(1) plus one store call shared by every concurrent caller.
+ */
+public class ReadThroughLruCache<K, V> {
+
+    /* Cached value plus its load time, for expiry and refresh-ahead. */
+    private static final class Entry<V> {
+        final V value;
+        final long loadedAt;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final ConcurrentLruCache<K, Entry<V>> cache;
+    private final CacheLoader<K, V> loader;
+    private final long expireAfterNanos;
+    private final long refreshAfterNanos;
+    private final Executor refreshExecutor;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final CacheStats stats;
+
+    /**
+     * @param capacity           maximum number of cached entries
+     * @param loader             backing-store access
+     * @param expireAfterMillis  entries older than this are reloaded synchronously
+     * @param refreshAfterMillis entries older than this are reloaded in the background on access
+     *                           (use a value >= expireAfterMillis to disable refresh-ahead)
+     * @param refreshExecutor    runs background refreshes
+     */
+    public ReadThroughLruCache(int capacity, CacheLoader<K, V> loader, long expireAfterMillis,
+                               long refreshAfterMillis, Executor refreshExecutor) {
+        this(capacity, loader, expireAfterMillis, refreshAfterMillis, refreshExecutor, CacheStats.DISABLED);
+    }
+
+    /* As above, recording hits, misses (including expired entries) and store load times into stats. */
+    public ReadThroughLruCache(int capacity, CacheLoader<K, V> loader, long expireAfterMillis,
+                               long refreshAfterMillis, Executor refreshExecutor, CacheStats stats) {
+        this.stats = Objects.requireNonNull(stats);
+        this.cache = new ConcurrentLruCache<>(capacity);
+        this.loader = Objects.requireNonNull(loader);
+        this.expireAfterNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterMillis);
+        this.refreshAfterNanos = TimeUnit.MILLISECONDS.toNanos(refreshAfterMillis);
+        this.refreshExecutor = Objects.requireNonNull(refreshExecutor);
+    }
+
+    /**
+     * Returns the cached value, loading it (once, shared by all concurrent callers) on a miss or expiry.
+     */
+    public V get(K key) {
+        Entry<V> entry = cache.get(key);
+        long now = System.nanoTime();
+        if (entry != null) {
+            long age = now - entry.loadedAt;
+            if (age < expireAfterNanos) {
+                hits.increment();
+                stats.recordHit();
+                if (age >= refreshAfterNanos) refreshAhead(key);
+                return entry.value;
+            }
+        }
+        stats.recordMiss();
+        return join(loadOnce(key, null));
+    }
+
+    /**
+     * Returns values for all keys: cache hits, loads already in flight, and one loadAll for the rest.
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        Map<K, V> result = new HashMap<>();
+        Map<K, CompletableFuture<V>> joined = new HashMap<>();
+        Map<K, CompletableFuture<V>> owned = new LinkedHashMap<>();
+        long now = System.nanoTime();
+
+        for (K key : keys) {
+            Entry<V> entry = cache.get(key);
+            if (entry != null && now - entry.loadedAt < expireAfterNanos) {
+                hits.increment();
+                stats.recordHit();
+                result.put(key, entry.value);
+                continue;
+            }
+            stats.recordMiss();
+            CompletableFuture<V> mine = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+            if (existing != null) {
+                coalesced.increment();
+                joined.put(key, existing);
+            } else {
+                owned.put(key, mine);
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            loads.increment();
+            long started = System.nanoTime();
+            try {
+                Map<K, V> loaded = loader.loadAll(owned.keySet());
+                stats.recordLoad(System.nanoTime() - started);
+                long loadedAt = System.nanoTime();
+                owned.forEach((key, future) -> {
+                    V value = loaded.get(key);
+                    if (value != null) cache.put(key, new Entry<>(value, loadedAt));
+                    future.complete(value);
+                });
+            } catch (Throwable e) { // Errors too: waiters must not block on a future nobody completes
+                owned.values().forEach(future -> future.completeExceptionally(e));
+            } finally {
+                owned.forEach(inFlight::remove);
+            }
+            owned.forEach((key, future) -> result.put(key, join(future)));
+        }
+        joined.forEach((key, future) -> result.put(key, join(future)));
+        return result;
+    }
+
+    /*
+     * Starts a load for key unless one is already in flight. With an executor the load runs there
+     * (refresh-ahead); otherwise it runs on the calling thread.
+     */
+    private CompletableFuture<V> loadOnce(K key, Executor executor) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        Runnable load = () -> {
+            loads.increment();
+            long started = System.nanoTime();
+            try {
+                V value = loader.load(key);
+                stats.recordLoad(System.nanoTime() - started);
+                if (value != null) cache.put(key, new Entry<>(value, System.nanoTime()));
+                mine.complete(value);
+            } catch (Throwable e) { // Errors too: waiters must not block on a future nobody completes
+                mine.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, mine); // after cache.put, so newcomers always find one or the other
+            }
+        };
+        if (executor == null) {
+            load.run();
+        } else {
+            try {
+                executor.execute(load);
+            } catch (RejectedExecutionException e) { // the load never runs, so nobody else would clean up
+                mine.completeExceptionally(e);
+                inFlight.remove(key, mine);
+            }
+        }
+        return mine;
+    }
+
+    private void refreshAhead(K key) {
+        if (inFlight.containsKey(key)) return;
+        refreshes.increment();
+        loadOnce(key, refreshExecutor);
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Load failed", e.getCause());
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /* Number of store calls issued (load or loadAll). */
+    public long loadCount() {
+        return loads.sum();
+    }
+
+    /* Number of callers that waited on another caller's load instead of going to the store. */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long refreshCount() {
+        return refreshes.sum();
+    }
+
+    // === Simulation ===
+
+    /* Slow backing store that counts how often it is hit. */
+    private static final class SimulatedSlowStore implements CacheLoader<Integer, String> {
+        final LongAdder calls = new LongAdder();
+        final long latencyMillis;
+
+        SimulatedSlowStore(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public String load(Integer key) throws InterruptedException {
+            calls.increment();
+            Thread.sleep(latencyMillis);
+            return "value-" + key;
+        }
+
+        @Override
+        public Map<Integer, String> loadAll(Collection<? extends Integer> keys) throws InterruptedException {
+            calls.increment(); // one round trip for the whole batch
+            Thread.sleep(latencyMillis);
+            Map<Integer, String> result = new HashMap<>();
+            for (Integer key : keys) result.put(key, "value-" + key);
+            return result;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = 32, hotKeys = 8, requestsPerThread = 1_000;
+        long storeLatency = 20, expireAfter = 200, refreshAfter = 150;
+        ExecutorService refresher = Executors.newFixedThreadPool(2);
+
+        // Naive read-through: every thread that misses goes to the store itself.
+        SimulatedSlowStore naiveStore = new SimulatedSlowStore(storeLatency);
+        ConcurrentLruCache<Integer, Entry<String>> naive = new ConcurrentLruCache<>(1_000);
+        long naiveMillis = hammer(threads, requestsPerThread, hotKeys, key -> {
+            Entry<String> entry = naive.get(key);
+            if (entry != null && System.nanoTime() - entry.loadedAt < TimeUnit.MILLISECONDS.toNanos(expireAfter)) {
+                return entry.value;
+            }
+            try {
+                String value = naiveStore.load(key);
+                naive.put(key, new Entry<>(value, System.nanoTime()));
+                return value;
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        SimulatedSlowStore coalescedStore = new SimulatedSlowStore(storeLatency);
+        ReadThroughLruCache<Integer, String> cache =
+                new ReadThroughLruCache<>(1_000, coalescedStore, expireAfter, refreshAfter, refresher);
+        long coalescedMillis = hammer(threads, requestsPerThread, hotKeys, cache::get);
+
+        System.out.printf("%d threads x %d gets over %d hot keys, store latency %d ms, TTL %d ms%n",
+                threads, requestsPerThread, hotKeys, storeLatency, expireAfter);
+        System.out.printf("naive read-through : %5d store calls, %5d ms%n", naiveStore.calls.sum(), naiveMillis);
+        System.out.printf("single-flight      : %5d store calls, %5d ms (coalesced waiters = %d, refreshes = %d)%n",
+                coalescedStore.calls.sum(), coalescedMillis, cache.coalescedCount(), cache.refreshCount());
+        System.out.printf("store calls saved  : %.1f%%%n",
+                100.0 * (naiveStore.calls.sum() - coalescedStore.calls.sum()) / naiveStore.calls.sum());
+
+        // Bulk miss: one round trip for all cold keys.
+        long before = coalescedStore.calls.sum();
+        Map<Integer, String> bulk = cache.getAll(List.of(100, 101, 102, 103, 104, 1, 2));
+        System.out.printf("getAll(7 keys, 5 cold) -> %d values with %d store call(s)%n",
+                bulk.size(), coalescedStore.calls.sum() - before);
+        refresher.shutdown();
+
+        // A loader that fails with an Error: the caller sees the failure and the key is not left in flight.
+        boolean[] fail = {true};
+        ReadThroughLruCache<Integer, String> failing = new ReadThroughLruCache<>(10, key -> {
+            if (fail[0]) throw new StackOverflowError("simulated");
+            return "value-" + key;
+        }, expireAfter, refreshAfter, Runnable::run);
+        try {
+            failing.get(1);
+            throw new AssertionError("load error was swallowed");
+        } catch (IllegalStateException expected) {
+            fail[0] = false;
+        }
+        if (!"value-1".equals(failing.get(1))) throw new AssertionError("key stayed stuck after a failed load");
+        System.out.println("failed load (Error) reported to the caller and retried on the next get");
+    }
+
+    private static long hammer(int threads, int requestsPerThread, int hotKeys,
+                               java.util.function.Function<Integer, String> get) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < requestsPerThread; i++) {
+                    get.apply(random.nextInt(hotKeys));
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(2)); // spread the run over several TTLs
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.MINUTES);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,254 @@
+package main.ds.linkedlist.scenarios.lru;
+
+import main.ds.linkedlist.scenarios.lru.suggestions.LRUCacheByLinkedHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/*
+ * W-TinyLFU cache: a small window LRU in front of a segmented LRU main region, with a TinyLFU admission filter
+ * between the two (the policy behind Caffeine).
+ *
+ *      new key -> [ window LRU (1%) ] --candidate--> TinyLFU: freq(candidate) > freq(victim) ?
+ *                                                     |-- yes: candidate enters probation, victim evicted
+ *                                                     '-- no : candidate evicted
+ *      main region (99%) = [ probation (20%) ] --hit--> [ protected (80%) ] --overflow--> back to probation
+ *
+ * - The window absorbs bursts of brand-new keys and gives them a chance to build up frequency.
+ * - The FrequencySketch remembers keys that are not cached, so a large scan of one-off keys never wins admission
+ *   against the hot set, which is exactly what flushes a plain LRU.
+ * - Segmented LRU keeps keys hit at least twice (protected) apart from keys seen once (probation).
+ *
+ * Every region is an intrusive doubly linked list with sentinels, as in LRUCacheSimplified.
+ * Time Complexity  : get/put O(1).
+ * Space Complexity : O(capacity) entries + ~0.5 byte per entry for the sketch.
+ * Not thread-safe.
+ */
+public class WTinyLfuCache<K, V> {
+    private static final int WINDOW = 0, PROBATION = 1, PROTECTED = 2;
+
+    private final int windowMax;
+    private final int mainMax;
+    private final int protectedMax;
+    private final Map<K, Node<K, V>> cache = new HashMap<>();
+    private final AccessList<K, V> window = new AccessList<>();
+    private final AccessList<K, V> probation = new AccessList<>();
+    private final AccessList<K, V> protectedList = new AccessList<>();
+    private final FrequencySketch sketch;
+    private final CacheStats stats;
+    private K missedKey; // key of the last get() that missed, already counted by the sketch; null if none
+
+    static class Node<K, V> {
+        final K key;
+        V value;
+        int region;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /* Sentinel-based LRU list; head side is most recently used. */
+    static class AccessList<K, V> {
+        final Node<K, V> head = new Node<>(null, null);
+        final Node<K, V> tail = new Node<>(null, null);
+        int size;
+
+        AccessList() {
+            head.next = tail;
+            tail.prev = head;
+        }
+
+        void addToHead(Node<K, V> node) {
+            node.next = head.next;
+            node.prev = head;
+            head.next.prev = node;
+            head.next = node;
+            size++;
+        }
+
+        void remove(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            size--;
+        }
+
+        void moveToHead(Node<K, V> node) {
+            remove(node);
+            addToHead(node);
+        }
+
+        Node<K, V> peekTail() {
+            return size == 0 ? null : tail.prev;
+        }
+    }
+
+    public WTinyLfuCache(int capacity) {
+        this(capacity, CacheStats.DISABLED);
+    }
+
+    public WTinyLfuCache(int capacity, CacheStats stats) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.windowMax = Math.max(1, capacity / 100);
+        this.mainMax = capacity - windowMax;
+        this.protectedMax = mainMax * 8 / 10;
+        this.sketch = new FrequencySketch(capacity);
+        this.stats = stats;
+    }
+
+    public V get(K key) {
+        sketch.increment(key);
+        Node<K, V> node = cache.get(key);
+        if (node == null) {
+            stats.recordMiss();
+            missedKey = key;
+            return null;
+        }
+        missedKey = null;
+        stats.recordHit();
+        onHit(node);
+        return node.value;
+    }
+
+    /* A put that loads the key get() just missed is the same access, so the sketch is not bumped twice. */
+    public void put(K key, V value) {
+        boolean counted = key.equals(missedKey);
+        missedKey = null;
+        Node<K, V> node = cache.get(key);
+        if (node != null) {
+            node.value = value;
+            onHit(node);
+            return;
+        }
+        if (!counted) sketch.increment(key);
+        node = new Node<>(key, value);
+        node.region = WINDOW;
+        cache.put(key, node);
+        window.addToHead(node);
+        if (window.size > windowMax) evictFromWindow();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private void onHit(Node<K, V> node) {
+        switch (node.region) {
+            case WINDOW -> window.moveToHead(node);
+            case PROTECTED -> protectedList.moveToHead(node);
+            default -> { // PROBATION: second hit promotes it
+                probation.remove(node);
+                node.region = PROTECTED;
+                protectedList.addToHead(node);
+                if (protectedList.size > protectedMax) {
+                    Node<K, V> demoted = protectedList.peekTail();
+                    protectedList.remove(demoted);
+                    demoted.region = PROBATION;
+                    probation.addToHead(demoted);
+                }
+            }
+        }
+    }
+
+    /* The window's LRU entry competes with the main region's victim for a place in the cache. */
+    private void evictFromWindow() {
+        Node<K, V> candidate = window.peekTail();
+        window.remove(candidate);
+
+        if (probation.size + protectedList.size < mainMax) {
+            candidate.region = PROBATION;
+            probation.addToHead(candidate);
+            return;
+        }
+        Node<K, V> victim = probation.size > 0 ? probation.peekTail() : protectedList.peekTail();
+        if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            (victim.region == PROBATION ? probation : protectedList).remove(victim);
+            cache.remove(victim.key);
+            stats.recordEviction();
+            candidate.region = PROBATION;
+            probation.addToHead(candidate);
+        } else {
+            cache.remove(candidate.key);
+            stats.recordEviction();
+        }
+    }
+
+    // === Hit-rate simulation ===
+
+    /* Zipfian keys in [0, n) with exponent s, sampled by binary search over the CDF. */
+    static int[] zipfTrace(int n, double s, int length, Random random) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) cdf[i] = sum += 1.0 / Math.pow(i + 1, s);
+        int[] trace = new int[length];
+        for (int i = 0; i < length; i++) {
+            double u = random.nextDouble() * sum;
+            int lo = 0, hi = n - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cdf[mid] < u) lo = mid + 1; else hi = mid;
+            }
+            trace[i] = lo;
+        }
+        return trace;
+    }
+
+    /* Zipfian traffic interrupted by long sequential scans of keys that are never seen again. */
+    static int[] scanTrace(int n, int length, Random random) {
+        int[] zipf = zipfTrace(n, 0.9, length, random);
+        int[] trace = new int[length];
+        int scanKey = n;
+        for (int i = 0; i < length; i++) {
+            trace[i] = (i % 60_000) < 40_000 ? zipf[i] : scanKey++; // 40K hot accesses, then a 20K scan
+        }
+        return trace;
+    }
+
+    private interface Simulated {
+        boolean access(int key); // true on hit; loads the key on a miss
+    }
+
+    private static double hitRate(int[] trace, Simulated cache) {
+        int hits = 0;
+        for (int key : trace) if (cache.access(key)) hits++;
+        return 100.0 * hits / trace.length;
+    }
+
+    private static void printCurve(String name, int[] trace, int[] sizes) {
+        System.out.printf("%n%s%n%-10s %12s %18s %12s%n", name, "size", "LinkedHashMap LRU", "LRU+TinyLFU", "W-TinyLFU");
+        for (int size : sizes) {
+            LRUCacheByLinkedHashMap lru = new LRUCacheByLinkedHashMap(size);
+            LRUCacheSimplified admitted = new LRUCacheSimplified(size, new FrequencySketch(size));
+            WTinyLfuCache<Integer, Integer> wTinyLfu = new WTinyLfuCache<>(size);
+
+            double lruRate = hitRate(trace, key -> {
+                if (lru.getData(key) != null) return true;
+                lru.put(key, "v");
+                return false;
+            });
+            double admittedRate = hitRate(trace, key -> {
+                if (admitted.get(key) != -1) return true;
+                admitted.put(key, key);
+                return false;
+            });
+            double wTinyLfuRate = hitRate(trace, key -> {
+                if (wTinyLfu.get(key) != null) return true;
+                wTinyLfu.put(key, key);
+                return false;
+            });
+            System.out.printf("%-10d %11.2f%% %17.2f%% %11.2f%%%n", size, lruRate, admittedRate, wTinyLfuRate);
+        }
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        int keys = 100_000;
+        int[] sizes = {250, 500, 1_000, 2_500, 5_000, 10_000};
+        printCurve("Zipfian (s = 0.99), 2M accesses", zipfTrace(keys, 0.99, 2_000_000, random), sizes);
+        printCurve("Scan-heavy (Zipf 0.9 + 20K-key scans), 2M accesses", scanTrace(keys, 2_000_000, random), sizes);
+    }
+}
@@ -0,0 +1,511 @@
+package main.ds.linkedlist.scenarios.lru.suggestions;
+
+import main.ds.linkedlist.scenarios.lru.CacheStats;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntBiFunction;
+
+/*
+Sharded, instance-based LRU cache.
+
+LRUCacheWithConcurrentHashMap and LRUCacheWithBetterHashingAndSync keep cache, head and capacity in static
+fields (every instance shares one cache) and route every call through static synchronized methods, so the
+ConcurrentHashMap never sees more than one thread at a time.
+
+Here the cache is split into N segments. Each segment owns a lock, a doubly linked recency list and
+capacity / N entries; keys are routed to a segment by hash. Lookups go through one shared ConcurrentHashMap
+and never take a lock:
+    - get() reads the node from the map and records the access in the segment's read buffer
+      (a small lossy ring, like Caffeine's read buffer). Nodes promoted recently enough to still sit in the
+      most recently used half of their list are not recorded at all, which removes most of the list
+      writes for hot keys.
+    - Whoever fills the buffer, or the next writer, replays the buffered accesses under the segment lock
+      and moves those nodes to the head of the list.
+So recency is applied in batches and may lag a few reads behind, which is the usual trade-off for reads
+that never block. Eviction is per segment, so the cache as a whole is an approximate LRU: a segment that
+receives more than its share of keys evicts a little before the total reaches capacity.
+
+Weights and TTL:
+    - An optional weigher gives every entry a weight (e.g. its size in bytes). Each segment evicts from the
+      LRU end until both its entry count and its total weight fit (maxWeight / N). An entry heavier than a
+      whole segment is rejected up front (any older value for its key is dropped) instead of flushing the
+      segment to make room it can never get.
+    - put(key, value, ttl) sets a per-entry deadline. Each segment keeps its deadlines on a hierarchical
+      TimingWheel, advanced on every write and buffer drain (and by cleanUp()), so expiry is O(1) amortized
+      instead of a list scan. get() treats an entry past its deadline as a miss even before the wheel
+      removes it.
+
+Time Complexity  : get O(1) without locking, put/remove O(1) under one segment lock, expiry O(1) amortized.
+Space Complexity : O(capacity) plus a fixed read buffer and timing wheel per segment.
+*/
+public class ConcurrentLruCache<K, V> {
+    private static final int READ_BUFFER_SIZE = 32; // power of two
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final long WHEEL_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+    private final CacheStats stats;
+
+    static final class Node<K, V> extends TimingWheel.Timer {
+        final K key;
+        volatile V value;
+        Node<K, V> prev;
+        Node<K, V> next;
+        boolean linked; // guarded by the segment lock
+        int promotedAt; // segment.promotions when last moved to the head; read racily by get()
+        int weight;     // guarded by the segment lock
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        boolean isExpired(long now) {
+            long deadline = expiresAt;
+            return deadline != 0 && now - deadline >= 0;
+        }
+    }
+
+    /** One shard: its own lock, recency list, read buffer and timing wheel. */
+    static final class Segment<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        final int capacity;
+        final long maxWeight;
+        final Node<K, V> head = new Node<>(null, null); // most recently used side
+        final Node<K, V> tail = new Node<>(null, null); // least recently used side
+        final TimingWheel<Node<K, V>> wheel = new TimingWheel<>(WHEEL_TICK_NANOS, System.nanoTime());
+        int size;
+        long weight;
+        int promotions; // written under the lock, read racily by get()
+
+        final AtomicReferenceArray<Node<K, V>> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        final AtomicInteger readCounter = new AtomicInteger();
+        final CacheStats stats;
+
+        Segment(int capacity, long maxWeight, CacheStats stats) {
+            this.capacity = capacity;
+            this.maxWeight = maxWeight;
+            this.stats = stats;
+            head.next = tail;
+            tail.prev = head;
+        }
+
+        void lock() {
+            lock.lock();
+        }
+
+        boolean tryLock() {
+            return lock.tryLock();
+        }
+
+        void unlock() {
+            lock.unlock();
+        }
+
+        /** Lock-free: remember the access, drain once the buffer wraps (skip if someone else holds the lock). */
+        void recordAccess(Node<K, V> node, ConcurrentHashMap<K, Node<K, V>> map) {
+            // Still in the most recently used half: moving it again would not change what gets evicted.
+            if (promotions - node.promotedAt < capacity / 2) return;
+            int slot = readCounter.getAndIncrement() & READ_BUFFER_MASK;
+            readBuffer.lazySet(slot, node);
+            if (slot == READ_BUFFER_MASK && tryLock()) {
+                try {
+                    maintain(map);
+                } finally {
+                    unlock();
+                }
+            }
+        }
+
+        /** Replays buffered accesses and expires due entries. Caller holds the lock. */
+        void maintain(ConcurrentHashMap<K, Node<K, V>> map) {
+            for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+                Node<K, V> node = readBuffer.getAndSet(i, null);
+                if (node != null && node.linked) moveToHead(node);
+            }
+            if (wheel.size() > 0) {
+                wheel.advance(System.nanoTime(), expired -> {
+                    evict(expired, map);
+                    stats.recordEviction();
+                });
+            }
+        }
+
+        /** Removes a node from the list, the wheel and the map. Caller holds the lock. */
+        void evict(Node<K, V> node, ConcurrentHashMap<K, Node<K, V>> map) {
+            if (node.linked) unlink(node);
+            wheel.cancel(node);
+            map.remove(node.key, node);
+        }
+
+        /** Evicts from the LRU end until both bounds hold. Caller holds the lock. */
+        void evictIfNeeded(ConcurrentHashMap<K, Node<K, V>> map) {
+            while (size > capacity || weight > maxWeight) {
+                evict(tail.prev, map);
+                stats.recordEviction();
+            }
+        }
+
+        void addToHead(Node<K, V> node) {
+            node.next = head.next;
+            node.prev = head;
+            head.next.prev = node;
+            head.next = node;
+            node.linked = true;
+            node.promotedAt = ++promotions;
+            size++;
+            weight += node.weight;
+        }
+
+        void unlink(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = node.next = null;
+            node.linked = false;
+            size--;
+            weight -= node.weight;
+        }
+
+        void moveToHead(Node<K, V> node) {
+            unlink(node);
+            addToHead(node);
+        }
+    }
+
+    public ConcurrentLruCache(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * @param capacity    maximum number of entries across all segments
+     * @param concurrency desired number of segments, rounded down to a power of two
+     */
+    public ConcurrentLruCache(int capacity, int concurrency) {
+        this(capacity, concurrency, Long.MAX_VALUE, (key, value) -> 1);
+    }
+
+    /**
+     * @param capacity    maximum number of entries across all segments
+     * @param concurrency desired number of segments, rounded down to a power of two
+     * @param maxWeight   maximum total weight across all segments
+     * @param weigher     weight of an entry (e.g. value size in bytes); must be non-negative
+     */
+    public ConcurrentLruCache(int capacity, int concurrency, long maxWeight,
+                              ToIntBiFunction<? super K, ? super V> weigher) {
+        this(capacity, concurrency, maxWeight, weigher, CacheStats.DISABLED);
+    }
+
+    /**
+     * @param stats receives hits (with promotions since the entry last reached the head as its recency depth),
+     *              misses, and evictions by size, weight or expiry
+     */
+    public ConcurrentLruCache(int capacity, int concurrency, long maxWeight,
+                              ToIntBiFunction<? super K, ? super V> weigher, CacheStats stats) {
+        if (capacity <= 0 || concurrency <= 0 || maxWeight <= 0) {
+            throw new IllegalArgumentException("capacity, concurrency and maxWeight must be positive");
+        }
+        // Rounded down, and never more segments than entries or weight units, so every segment gets a share.
+        int segmentCount = Integer.highestOneBit((int) Math.min(Math.min(concurrency, capacity), maxWeight));
+        this.segments = newSegments(segmentCount);
+        this.segmentMask = segmentCount - 1;
+        // The first (capacity % segmentCount) segments take one extra entry, so the shares sum to capacity.
+        for (int i = 0; i < segmentCount; i++) {
+            int segmentCapacity = capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0);
+            long segmentWeight = maxWeight == Long.MAX_VALUE ? Long.MAX_VALUE
+                    : maxWeight / segmentCount + (i < maxWeight % segmentCount ? 1 : 0);
+            segments[i] = new Segment<>(segmentCapacity, segmentWeight, stats);
+        }
+        this.map = new ConcurrentHashMap<>(capacity, 0.75f, segmentCount);
+        this.weigher = weigher;
+        this.stats = stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Segment<K, V>[] newSegments(int count) {
+        return (Segment<K, V>[]) new Segment<?, ?>[count];
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16); // spread high bits so the segment index does not alias the map's buckets
+        return segments[(h * 0x9E3779B9 >>> 16) & segmentMask];
+    }
+
+    /*
+     * Time Complexity : O(1), no lock taken.
+     */
+    public V get(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null || (node.expiresAt != 0 && node.isExpired(System.nanoTime()))) {
+            stats.recordMiss();
+            return null;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        stats.recordHit(segment.promotions - node.promotedAt);
+        segment.recordAccess(node, map);
+        return node.value;
+    }
+
+    /*
+     * Time Complexity : O(1) under the key's segment lock.
+     */
+    public void put(K key, V value) {
+        put(key, value, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /*
+     * Inserts or replaces an entry that expires ttl after this call (ttl <= 0 means never).
+     * Time Complexity : O(1) under the key's segment lock.
+     */
+    public void put(K key, V value, long ttl, TimeUnit unit) {
+        if (key == null || value == null) throw new NullPointerException();
+        int weight = weigher.applyAsInt(key, value);
+        if (weight < 0) throw new IllegalArgumentException("negative weight for " + key);
+        long now = System.nanoTime();
+        long deadline = ttl <= 0 ? 0 : (now + unit.toNanos(ttl)) | 1; // | 1 keeps 0 free as "no deadline"
+
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock();
+        try {
+            segment.maintain(map);
+            Node<K, V> node = map.get(key);
+            if (weight > segment.maxWeight) { // would evict the whole segment and still not fit
+                if (node != null) segment.evict(node, map);
+                stats.recordEviction();
+                return;
+            }
+            if (node != null) {
+                segment.unlink(node);
+                node.value = value;
+            } else {
+                node = new Node<>(key, value);
+                map.put(key, node);
+            }
+            node.weight = weight;
+            node.expiresAt = deadline;
+            segment.wheel.schedule(node);
+            segment.addToHead(node);
+            segment.evictIfNeeded(map);
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    public V remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock();
+        try {
+            Node<K, V> node = map.get(key);
+            if (node == null) return null;
+            segment.evict(node, map);
+            return node.value;
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    /* Drains read buffers and expires due entries in every segment. */
+    public void cleanUp() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock();
+            try {
+                segment.maintain(map);
+            } finally {
+                segment.unlock();
+            }
+        }
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    /* Sum of the weights of all retained entries. */
+    public long weightedSize() {
+        long total = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock();
+            try {
+                total += segment.weight;
+            } finally {
+                segment.unlock();
+            }
+        }
+        return total;
+    }
+
+    /*
+     * Walks every segment under its lock and checks that the weight counter matches the linked nodes,
+     * stays within the segment bound, and that every linked node is the one the map holds.
+     */
+    void checkInvariants() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock();
+            try {
+                long weight = 0;
+                int size = 0;
+                for (Node<K, V> node = segment.head.next; node != segment.tail; node = node.next) {
+                    weight += node.weight;
+                    size++;
+                    if (map.get(node.key) != node) throw new IllegalStateException("list/map mismatch for " + node.key);
+                }
+                if (weight != segment.weight || size != segment.size) {
+                    throw new IllegalStateException("counters " + segment.size + "/" + segment.weight
+                            + " but list holds " + size + "/" + weight);
+                }
+                if (size > segment.capacity || weight > segment.maxWeight) {
+                    throw new IllegalStateException("segment over its bound: " + size + "/" + weight);
+                }
+            } finally {
+                segment.unlock();
+            }
+        }
+    }
+
+    /*
+     * Concurrent check of weight accounting and expiry: writers insert values of random size with random TTLs
+     * (some without one) while readers and removers run alongside. Afterwards the per-segment counters must
+     * match the lists, and once every TTL has passed only the entries without one may remain.
+     */
+    private static void verifyWeightsAndExpiry() throws InterruptedException {
+        long maxWeight = 64 * 1024;
+        ConcurrentLruCache<Integer, byte[]> cache = new ConcurrentLruCache<>(10_000, 16, maxWeight, (k, v) -> v.length);
+        int threads = 8, opsPerThread = 200_000, keySpace = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < opsPerThread; i++) {
+                    int key = random.nextInt(keySpace);
+                    int op = random.nextInt(10);
+                    if (op < 5) {
+                        cache.get(key);
+                    } else if (op < 9) {
+                        byte[] value = new byte[random.nextInt(1, 512)];
+                        long ttl = key % 4 == 0 ? 0 : random.nextInt(1, 50); // keys divisible by 4 never expire
+                        cache.put(key, value, ttl, TimeUnit.MILLISECONDS);
+                    } else {
+                        cache.remove(key);
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+        cache.checkInvariants();
+        System.out.printf("after %d concurrent ops: %d entries, weight %d (max %d)%n",
+                threads * opsPerThread, cache.size(), cache.weightedSize(), maxWeight);
+
+        TimeUnit.MILLISECONDS.sleep(100); // longer than any TTL used above
+        cache.cleanUp();
+        cache.checkInvariants();
+        for (Segment<Integer, byte[]> segment : cache.segments) {
+            for (Node<Integer, byte[]> node = segment.head.next; node != segment.tail; node = node.next) {
+                if (node.key % 4 != 0) throw new IllegalStateException("entry " + node.key + " outlived its TTL");
+            }
+        }
+        System.out.printf("after TTL + cleanUp(): %d entries (only ones without TTL), weight %d%n",
+                cache.size(), cache.weightedSize());
+
+        // An entry heavier than a whole segment is never retained, and the entries already cached stay.
+        int neighbour = 4;
+        while (cache.segmentFor(neighbour) != cache.segmentFor(-1)) neighbour += 4; // same segment, no TTL
+        cache.put(neighbour, new byte[16]);
+        int sizeBefore = cache.size();
+        long weightBefore = cache.weightedSize();
+        cache.put(-1, new byte[(int) maxWeight]);
+        if (cache.get(-1) != null) throw new IllegalStateException("oversized entry retained");
+        if (cache.size() != sizeBefore || cache.weightedSize() != weightBefore) {
+            throw new IllegalStateException("oversized entry evicted " + (sizeBefore - cache.size()) + " entries");
+        }
+        if (cache.get(neighbour) == null) throw new IllegalStateException("oversized entry flushed its segment");
+        cache.checkInvariants();
+        System.out.println("weight and expiry checks passed");
+    }
+
+    /*
+     * Hit throughput at 1..64 threads. The baseline is LRUCacheByLinkedHashMap behind one lock, which is
+     * how LRUCacheWithConcurrentHashMap / LRUCacheWithBetterHashingAndSync behave: every call goes
+     * through a static synchronized method, so at most one thread touches the cache at a time.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        // More segments requested than entries: the per-segment shares still add up to exactly the capacity.
+        ConcurrentLruCache<Integer, Integer> small = new ConcurrentLruCache<>(10, 16);
+        for (int i = 0; i < 1_000; i++) small.put(i, i);
+        small.checkInvariants();
+        if (small.size() > 10) throw new IllegalStateException("capacity 10 but " + small.size() + " entries");
+        verifyWeightsAndExpiry();
+
+        int capacity = 100_000;
+        int keySpace = capacity * 9 / 10; // headroom so uneven segment fill does not turn hits into misses
+        ConcurrentLruCache<Integer, String> sharded = new ConcurrentLruCache<>(capacity);
+        LRUCacheByLinkedHashMap globalLock = new LRUCacheByLinkedHashMap(capacity);
+        Integer[] keys = new Integer[keySpace];
+        for (int i = 0; i < keySpace; i++) {
+            keys[i] = i;
+            sharded.put(i, "v" + i);
+            globalLock.put(i, "v" + i);
+        }
+
+        // Pre-generated access traces so the RNG is not part of the measurement.
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] uniform = new int[1 << 20];
+        int[] skewed = new int[1 << 20];
+        for (int i = 0; i < uniform.length; i++) {
+            uniform[i] = random.nextInt(keySpace);
+            skewed[i] = (int) (keySpace * Math.pow(random.nextDouble(), 4)); // power law: low keys are hot
+        }
+
+        measureHits(1, keys, uniform, sharded::get); // JIT warm-up
+        measureHits(1, keys, uniform, globalLock::getData);
+
+        for (int[] trace : new int[][]{uniform, skewed}) {
+            System.out.println(trace == uniform ? "\nUniform keys" : "\nSkewed keys");
+            System.out.printf("%-8s %22s %22s%n", "threads", "ConcurrentLruCache", "synchronized LRU");
+            for (int threads = 1; threads <= 64; threads *= 2) {
+                double shardedOps = measureHits(threads, keys, trace, sharded::get);
+                double lockedOps = measureHits(threads, keys, trace, key -> {
+                    synchronized (globalLock) {
+                        return globalLock.getData(key);
+                    }
+                });
+                System.out.printf("%-8d %16.1f Mops/s %16.1f Mops/s%n", threads, shardedOps / 1e6, lockedOps / 1e6);
+            }
+        }
+    }
+
+    private static double measureHits(int threads, Integer[] keys, int[] trace,
+                                      java.util.function.Function<Integer, String> getter) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        long runNanos = TimeUnit.MILLISECONDS.toNanos(300);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                int position = ThreadLocalRandom.current().nextInt(trace.length);
+                long count = 0;
+                while (System.nanoTime() - start < runNanos) {
+                    for (int i = 0; i < 1_000; i++) {
+                        getter.apply(keys[trace[position++ & (trace.length - 1)]]);
+                    }
+                    count += 1_000;
+                }
+                ops.add(count);
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+        return ops.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+}
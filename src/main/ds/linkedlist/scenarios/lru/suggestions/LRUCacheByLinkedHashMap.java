@@ -1,5 +1,7 @@
 package main.ds.linkedlist.scenarios.lru.suggestions;
 
+import main.ds.linkedlist.scenarios.lru.CacheStats;
+
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -11,20 +13,30 @@ It has an optional access-order mode that automatically moves accessed elements
 public class LRUCacheByLinkedHashMap {
     private Integer capacity;
     private Map<Integer, String> cache;
+    private final CacheStats stats;
+
+    public LRUCacheByLinkedHashMap(Integer capacity) {
+        this(capacity, CacheStats.DISABLED);
+    }
 
-    LRUCacheByLinkedHashMap(Integer capacity) {
+    public LRUCacheByLinkedHashMap(Integer capacity, CacheStats stats) {
         this.capacity = capacity;
+        this.stats = stats;
         this.cache = new LinkedHashMap<Integer, String>(capacity, 0.75f, true) {
             @Override
             protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
                 // return super.removeEldestEntry(eldest);
-                return size() > capacity;
+                boolean evict = size() > capacity;
+                if (evict) stats.recordEviction();
+                return evict;
             }
         };
     }
 
     public String getData(Integer key){
-        return cache.getOrDefault(key, null);
+        String value = cache.get(key);
+        if (value == null) stats.recordMiss(); else stats.recordHit();
+        return value;
     }
 
     public void put(Integer key, String value) {
@@ -1,6 +1,8 @@
 package main.ds.linkedlist.scenarios.lru.suggestions;
 
 import main.ds.linkedlist.scenarios.HashedKey;
+import main.ds.linkedlist.scenarios.lru.CacheStats;
+import main.ds.linkedlist.scenarios.lru.ConcurrentCacheStats;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -17,6 +19,7 @@ public class LRUCacheWithConcurrentHashMap {
     private static ConcurrentHashMap<HashedKey, DoubleLinkedList> cache; // Using ConcurrentHashMap for better thread safety in high concurrent env
     private static Integer cacheCapacity;
     private static DoubleLinkedList head;
+    private static final CacheStats stats = new ConcurrentCacheStats(); // shared, like the cache itself
 
     public LRUCacheWithConcurrentHashMap(Integer capacity) {
         cacheCapacity = capacity;
@@ -83,6 +86,7 @@ public class LRUCacheWithConcurrentHashMap {
         nextNode.prev.next = null;
         nextNode.prev = null;
         if (key != null) {
+            stats.recordEviction();
             cache.remove(new HashedKey(key));
             System.out.println("Cache Key " + key + " evicted");
         }
@@ -115,18 +119,27 @@ public class LRUCacheWithConcurrentHashMap {
 
     private synchronized static DoubleLinkedList loadFromCache(HashedKey key) {
         if (cache.containsKey(key)) {
+            stats.recordHit();
             System.out.println("Cache Hit for key: " + key);
             return cache.get(key);
         }
+        stats.recordMiss();
         System.out.println("Cache Miss for key: " + key);
         return null;
     }
 
+    /* Hit/miss/eviction/load counters of the shared cache. */
+    public static CacheStats stats() {
+        return stats;
+    }
+
     private synchronized static Integer find(Integer key) {
         HashedKey cacheKey = new HashedKey(key);
         DoubleLinkedList node = loadFromCache(cacheKey);
         if (node == null) {
+            long started = System.nanoTime();
             node = readFromStore(cacheKey);
+            stats.recordLoad(System.nanoTime() - started);
             moveRecentlyUsed(cacheKey, node, true);
         } else {
             moveRecentlyUsed(cacheKey, node, false);
@@ -171,5 +184,6 @@ public class LRUCacheWithConcurrentHashMap {
         find(4);
         find(2);
         DoubleLinkedList.printList(head);
+        System.out.println(stats().snapshot());
     }
 }
@@ -0,0 +1,137 @@
+package main.ds.linkedlist.scenarios.lru.suggestions;
+
+import java.util.function.Consumer;
+
+/*
+Hierarchical timing wheel for O(1) amortized entry expiry.
+
+Scanning an LRU list for expired entries is O(n). A timing wheel hashes each deadline into a bucket instead:
+
+    level 0 : 64 buckets x tick            (covers 64 ticks)
+    level 1 : 64 buckets x 64 ticks        (covers 4096 ticks)
+    level 2 : 64 buckets x 4096 ticks
+    level 3 : 64 buckets x 262144 ticks
+    level 4 : 64 buckets x 16777216 ticks  (deadlines beyond this wait in its last bucket)
+
+A timer goes into the coarsest level that still resolves its remaining delay. As time advances, every bucket
+whose span has fully elapsed is emptied: expired timers fire, the rest are rescheduled and drop into a finer
+level (cascading). Each timer cascades at most once per level, so scheduling, cancelling and expiring are
+all O(1) amortized.
+
+Timers are intrusive (prev/next live in the Timer itself), so cancel is an O(1) unlink with no allocation.
+Not thread-safe: the owning cache segment guards it with its lock.
+*/
+public class TimingWheel<T extends TimingWheel.Timer> {
+    private static final int LEVELS = 5;
+    private static final int BUCKETS = 64;
+    private static final int BUCKET_SHIFT = 6;
+
+    /* Base class for anything that can be scheduled on the wheel. */
+    public static class Timer {
+        volatile long expiresAt; // System.nanoTime() deadline, 0 = never
+        Timer timerPrev;
+        Timer timerNext;
+
+        public long expiresAt() {
+            return expiresAt;
+        }
+
+        boolean isScheduled() {
+            return timerNext != null;
+        }
+    }
+
+    private final long tickNanos;
+    private final int tickShift;         // tickNanos rounded to a power of two
+    private final Timer[][] wheel = new Timer[LEVELS][BUCKETS]; // sentinel per bucket
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickNanos, long nowNanos) {
+        this.tickShift = 63 - Long.numberOfLeadingZeros(Math.max(1, tickNanos));
+        this.tickNanos = 1L << tickShift;
+        this.currentTick = nowNanos >> tickShift;
+        for (Timer[] level : wheel) {
+            for (int i = 0; i < BUCKETS; i++) {
+                Timer sentinel = new Timer();
+                sentinel.timerPrev = sentinel.timerNext = sentinel;
+                level[i] = sentinel;
+            }
+        }
+    }
+
+    public long tickNanos() {
+        return tickNanos;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /* Schedules (or reschedules) a timer for its current expiresAt. */
+    public void schedule(T timer) {
+        if (timer.isScheduled()) cancel(timer);
+        if (timer.expiresAt == 0) return;
+        link(timer);
+        size++;
+    }
+
+    public void cancel(T timer) {
+        if (!timer.isScheduled()) return;
+        timer.timerPrev.timerNext = timer.timerNext;
+        timer.timerNext.timerPrev = timer.timerPrev;
+        timer.timerPrev = timer.timerNext = null;
+        size--;
+    }
+
+    private void link(Timer timer) {
+        long deadlineTick = Math.max(timer.expiresAt >> tickShift, currentTick + 1);
+        long delay = deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= (1L << (BUCKET_SHIFT * (level + 1)))) level++;
+        long bucketTick = level == LEVELS - 1 && delay >= (1L << (BUCKET_SHIFT * LEVELS))
+                ? currentTick + (1L << (BUCKET_SHIFT * LEVELS)) - 1 // beyond the wheel: park in the farthest bucket
+                : deadlineTick;
+        Timer sentinel = wheel[level][(int) ((bucketTick >> (BUCKET_SHIFT * level)) & (BUCKETS - 1))];
+        timer.timerNext = sentinel;
+        timer.timerPrev = sentinel.timerPrev;
+        sentinel.timerPrev.timerNext = timer;
+        sentinel.timerPrev = timer;
+    }
+
+    /*
+     * Moves time forward to nowNanos, handing every expired timer to onExpire (already unlinked).
+     * Cost is proportional to the buckets crossed (at most 64 per level) plus the timers touched.
+     */
+    @SuppressWarnings("unchecked")
+    public void advance(long nowNanos, Consumer<T> onExpire) {
+        long targetTick = nowNanos >> tickShift;
+        if (targetTick <= currentTick) return;
+        long previousTick = currentTick;
+        currentTick = targetTick;
+
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BUCKET_SHIFT * level;
+            long from = previousTick >> shift;
+            long to = targetTick >> shift;
+            if (to == from) break; // coarser levels have not turned either
+            long steps = Math.min(to - from, BUCKETS);
+            for (long step = 1; step <= steps; step++) {
+                Timer sentinel = wheel[level][(int) ((from + step) & (BUCKETS - 1))];
+                Timer timer = sentinel.timerNext;
+                sentinel.timerPrev = sentinel.timerNext = sentinel; // detach the whole bucket
+                while (timer != sentinel) {
+                    Timer next = timer.timerNext;
+                    timer.timerPrev = timer.timerNext = null;
+                    if (timer.expiresAt != 0 && timer.expiresAt >> tickShift <= targetTick) {
+                        size--;
+                        onExpire.accept((T) timer);
+                    } else {
+                        link(timer); // cascade into a finer level
+                    }
+                    timer = next;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package main.ds.linkedlist.special;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/*
+ * XOR doubly linked list whose "addresses" are indices into arrays, so it works in plain, GC-safe Java.
+ *
+ * XORLinkedList stores identity hash codes as addresses, which can never be turned back into a node, so it
+ * cannot actually walk the list. Here every node is a slot of two parallel arrays:
+ *
+ *      values[i] the element
+ *      links[i]  index of the previous node XOR index of the next node (0 = no node, slot 0 is never used)
+ *
+ * Walking needs the index we came from: next = links[current] ^ previous. The same link serves both directions,
+ * so starting at head walks forward and starting at tail walks backward, with one int of link per element
+ * instead of a prev and a next reference. Removed slots are chained into a free list through their link.
+ *
+ * A java.util.LinkedList<Long> costs a 24-byte node plus a 24-byte Long per element; this list costs 12 bytes
+ * (8 for the long and 4 for the link) plus unused array capacity. Elements sit in arena order, so a list
+ * built by appends is also walked through sequential memory.
+ * Time Complexity  : addFirst / addLast / removeFirst / removeLast O(1); get(index) O(min(index, size - index));
+ *                    addAll O(k).
+ * Space Complexity : O(capacity), 12 bytes per slot.
+ */
+public class ArenaXORLinkedList {
+    private static final int NIL = 0;
+
+    private long[] values;
+    private int[] links;
+    private int head = NIL;
+    private int tail = NIL;
+    private int size;
+    private int nextUnused = 1; // slots below this have been handed out at least once
+    private int free = NIL;     // chain of removed slots, linked through links[]
+
+    public ArenaXORLinkedList() {
+        this(16);
+    }
+
+    public ArenaXORLinkedList(int initialCapacity) {
+        values = new long[Math.max(2, initialCapacity + 1)];
+        links = new int[values.length];
+    }
+
+    /* Builds a list holding values[from, to) in order, with its slots laid out contiguously. */
+    public static ArenaXORLinkedList of(long[] values, int from, int to) {
+        ArenaXORLinkedList list = new ArenaXORLinkedList(to - from);
+        list.addAll(values, from, to);
+        return list;
+    }
+
+    private void ensureCapacity(int slots) {
+        if (slots > values.length) {
+            int capacity = Math.max(slots, values.length * 2);
+            values = Arrays.copyOf(values, capacity);
+            links = Arrays.copyOf(links, capacity);
+        }
+    }
+
+    private int allocate(long value) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = links[node];
+        } else {
+            ensureCapacity(nextUnused + 1);
+            node = nextUnused++;
+        }
+        values[node] = value;
+        return node;
+    }
+
+    private void release(int node) {
+        links[node] = free;
+        free = node;
+    }
+
+    public void addLast(long value) {
+        int node = allocate(value);
+        links[node] = tail; // tail ^ NIL
+        if (tail == NIL) {
+            head = node;
+        } else {
+            links[tail] ^= node; // was prev ^ NIL, now prev ^ node
+        }
+        tail = node;
+        size++;
+    }
+
+    public void addFirst(long value) {
+        int node = allocate(value);
+        links[node] = head;
+        if (head == NIL) {
+            tail = node;
+        } else {
+            links[head] ^= node;
+        }
+        head = node;
+        size++;
+    }
+
+    /*
+     * Appends values[from, to). Without free slots to reuse the new nodes take consecutive indices, so their
+     * links are written in one pass: node i links i - 1 and i + 1.
+     */
+    public void addAll(long[] source, int from, int to) {
+        int count = to - from;
+        if (count <= 0) return;
+        if (free != NIL) {
+            for (int i = from; i < to; i++) addLast(source[i]);
+            return;
+        }
+        ensureCapacity(nextUnused + count);
+        int first = nextUnused;
+        int last = first + count - 1;
+        System.arraycopy(source, from, values, first, count);
+        for (int node = first; node <= last; node++) {
+            links[node] = (node - 1) ^ (node + 1);
+        }
+        links[first] = tail ^ (count > 1 ? first + 1 : NIL);
+        links[last] = (count > 1 ? last - 1 : tail) ^ NIL;
+        if (tail == NIL) {
+            head = first;
+        } else {
+            links[tail] ^= first;
+        }
+        tail = last;
+        nextUnused = last + 1;
+        size += count;
+    }
+
+    public long removeFirst() {
+        if (head == NIL) throw new NoSuchElementException();
+        int node = head;
+        int next = links[node]; // NIL ^ next
+        long value = values[node];
+        if (next == NIL) {
+            tail = NIL;
+        } else {
+            links[next] ^= node;
+        }
+        head = next;
+        release(node);
+        size--;
+        return value;
+    }
+
+    public long removeLast() {
+        if (tail == NIL) throw new NoSuchElementException();
+        int node = tail;
+        int prev = links[node];
+        long value = values[node];
+        if (prev == NIL) {
+            head = NIL;
+        } else {
+            links[prev] ^= node;
+        }
+        tail = prev;
+        release(node);
+        size--;
+        return value;
+    }
+
+    public long getFirst() {
+        if (head == NIL) throw new NoSuchElementException();
+        return values[head];
+    }
+
+    public long getLast() {
+        if (tail == NIL) throw new NoSuchElementException();
+        return values[tail];
+    }
+
+    /* Walks from whichever end is closer. */
+    public long get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index out of range: " + index);
+        boolean fromHead = index < size / 2;
+        int steps = fromHead ? index : size - 1 - index;
+        int previous = NIL;
+        int current = fromHead ? head : tail;
+        for (int i = 0; i < steps; i++) {
+            int next = links[current] ^ previous;
+            previous = current;
+            current = next;
+        }
+        return values[current];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        head = tail = free = NIL;
+        nextUnused = 1;
+        size = 0;
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        return walk(head);
+    }
+
+    public PrimitiveIterator.OfLong descendingIterator() {
+        return walk(tail);
+    }
+
+    private PrimitiveIterator.OfLong walk(int start) {
+        return new PrimitiveIterator.OfLong() {
+            private int previous = NIL;
+            private int current = start;
+
+            @Override
+            public boolean hasNext() {
+                return current != NIL;
+            }
+
+            @Override
+            public long nextLong() {
+                if (current == NIL) throw new NoSuchElementException();
+                long value = values[current];
+                int next = links[current] ^ previous;
+                previous = current;
+                current = next;
+                return value;
+            }
+        };
+    }
+
+    public void forEach(LongConsumer action) {
+        for (int previous = NIL, current = head; current != NIL; ) {
+            action.accept(values[current]);
+            int next = links[current] ^ previous;
+            previous = current;
+            current = next;
+        }
+    }
+
+    public long[] toArray() {
+        long[] array = new long[size];
+        int[] i = {0};
+        forEach(value -> array[i[0]++] = value);
+        return array;
+    }
+
+    // === Bytes per element against java.util.LinkedList and ArrayDeque ===
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) {
+        ArenaXORLinkedList list = new ArenaXORLinkedList(4);
+        list.addLast(2);
+        list.addLast(3);
+        list.addFirst(1);
+        list.addAll(new long[]{4, 5, 6}, 0, 3);
+        list.addFirst(0);
+        System.out.println("forward : " + Arrays.toString(list.toArray()));
+        StringBuilder backward = new StringBuilder();
+        for (PrimitiveIterator.OfLong it = list.descendingIterator(); it.hasNext(); ) {
+            backward.append(it.nextLong()).append(it.hasNext() ? ", " : "");
+        }
+        System.out.println("backward: [" + backward + "]");
+        System.out.println("get(4) = " + list.get(4) + ", removeFirst = " + list.removeFirst()
+                + ", removeLast = " + list.removeLast() + ", size = " + list.size());
+
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        long[] source = new long[n];
+        for (int i = 0; i < n; i++) source[i] = 1_000L + 7L * i; // outside the Long cache: every box is real
+
+        long before = usedHeap();
+        ArenaXORLinkedList xor = ArenaXORLinkedList.of(source, 0, n);
+        long xorBytes = usedHeap() - before;
+
+        before = usedHeap();
+        LinkedList<Long> linked = new LinkedList<>();
+        for (long value : source) linked.add(value);
+        long linkedBytes = usedHeap() - before;
+
+        before = usedHeap();
+        ArrayDeque<Long> deque = new ArrayDeque<>(n);
+        for (long value : source) deque.add(value);
+        long dequeBytes = usedHeap() - before;
+
+        System.out.printf("%n%d longs, retained heap per element%n", n);
+        System.out.printf("%-32s %6.1f bytes%n", "ArenaXORLinkedList", (double) xorBytes / n);
+        System.out.printf("%-32s %6.1f bytes%n", "java.util.LinkedList<Long>", (double) linkedBytes / n);
+        System.out.printf("%-32s %6.1f bytes%n", "java.util.ArrayDeque<Long>", (double) dequeBytes / n);
+
+        long start = System.nanoTime();
+        long[] sum = {0};
+        xor.forEach(value -> sum[0] += value);
+        long xorNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        long linkedSum = 0;
+        for (long value : linked) linkedSum += value;
+        long linkedNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        long dequeSum = 0;
+        for (long value : deque) dequeSum += value;
+        long dequeNanos = System.nanoTime() - start;
+        if (sum[0] != linkedSum || linkedSum != dequeSum) throw new AssertionError("sums differ");
+        System.out.printf("%nfull traversal: XOR %.1f ms, LinkedList %.1f ms, ArrayDeque %.1f ms%n",
+                xorNanos / 1e6, linkedNanos / 1e6, dequeNanos / 1e6);
+    }
+}
@@ -0,0 +1,498 @@
+package main.ds.linkedlist.special;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/*
+ * Lock-free concurrent variant of SkipListUsingArrays (Herlihy & Shavit, "The Art of Multiprocessor
+ * Programming", LockFreeSkipList).
+ *
+ * Every node has a fixed forward-pointer array sized to its height. A slot holds either the successor node or,
+ * once the node is being deleted at that level, a Marked wrapper around the successor: Java has no spare pointer
+ * bits, so "the mark bit" is the type of the reference, set and cleared together with the pointer by one CAS.
+ *
+ *      put    : find the predecessors at every level, CAS the node in at level 0 (the linearization point),
+ *               then link the upper levels one CAS at a time, re-finding on failure. If the key is present,
+ *               CAS its value instead; a null value means it is being removed: help mark it, then retry
+ *      remove : CAS the value to null (linearization point, as in ConcurrentSkipListMap), mark the upper levels
+ *               top-down, then level 0; the winning thread runs find once more, which physically unlinks
+ *               ("snips") the marked node at every level
+ *      get    : wait-free, never writes; steps over marked nodes without unlinking them, and treats a null
+ *               value as absent
+ *
+ * Levels come from ThreadLocalRandom (no shared Random to contend on). floor/ceiling and range scans walk the
+ * bottom level and skip marked nodes; like ConcurrentSkipListMap they are weakly consistent under concurrent
+ * updates, and size() is O(n).
+ * Time Complexity  : O(log n) expected for get / put / remove / floor / ceiling; O(log n + k) for a k-key range.
+ * Space Complexity : O(n), 2 forward pointers per node on average.
+ */
+public class ConcurrentSkipListUsingArrays<K extends Comparable<K>, V> {
+    private static final int MAX_LEVEL = 24;
+    private static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final VarHandle LEVEL_HINT;
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            LEVEL_HINT = lookup.findVarHandle(ConcurrentSkipListUsingArrays.class, "levelHint", int.class);
+            VALUE = lookup.findVarHandle(Node.class, "value", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final class Node<K, V> {
+        final K key;         // null only for the head
+        volatile V value;    // null once removed (or for the head); changed only through VALUE
+        final Object[] next; // Node, Marked or null (end of level), accessed through NEXT
+
+        Node(K key, V value, int height) {
+            this.key = key;
+            this.value = value;
+            this.next = new Object[height];
+        }
+    }
+
+    /* A marked forward pointer: the owning node is logically deleted at this level. */
+    private static final class Marked {
+        final Node<?, ?> successor;
+
+        Marked(Node<?, ?> successor) {
+            this.successor = successor;
+        }
+    }
+
+    private final Node<K, V> head = new Node<>(null, null, MAX_LEVEL);
+    private volatile int levelHint = 1; // no node is taller; raised before a taller node is linked
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V> reference(Object link) {
+        return (Node<K, V>) (link instanceof Marked marked ? marked.successor : link);
+    }
+
+    private static Object link(Node<?, ?> node, int level) {
+        return NEXT.getVolatile(node.next, level);
+    }
+
+    private static boolean casLink(Node<?, ?> node, int level, Object expected, Object update) {
+        return NEXT.compareAndSet(node.next, level, expected, update);
+    }
+
+    private static <V> boolean casValue(Node<?, V> node, V expected, V update) {
+        return VALUE.compareAndSet(node, expected, update);
+    }
+
+    private static int randomLevel() {
+        // Geometric with p = 1/2: one more level per trailing zero bit.
+        int bits = ThreadLocalRandom.current().nextInt() | (1 << (MAX_LEVEL - 1));
+        return Integer.numberOfTrailingZeros(bits) + 1;
+    }
+
+    private void raiseLevelHint(int level) {
+        int hint;
+        while ((hint = levelHint) < level && !LEVEL_HINT.compareAndSet(this, hint, level)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /*
+     * Fills preds/succs with the last node before key and the first node at or after key at every level below
+     * the level hint (above it: head and nothing), snipping marked nodes on the way. True if succs[0] holds key.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean find(K key, Node<K, V>[] preds, Node<K, V>[] succs) {
+        retry:
+        while (true) {
+            int top = levelHint;
+            for (int level = MAX_LEVEL - 1; level >= top; level--) {
+                preds[level] = head;
+                succs[level] = null;
+            }
+            Node<K, V> pred = head;
+            Node<K, V> curr = null;
+            for (int level = top - 1; level >= 0; level--) {
+                curr = reference(link(pred, level));
+                while (curr != null) {
+                    Object succ = link(curr, level);
+                    while (succ instanceof Marked marked) {
+                        Node<K, V> unmarked = (Node<K, V>) marked.successor;
+                        if (!casLink(pred, level, curr, unmarked)) continue retry; // pred changed or got marked
+                        curr = unmarked;
+                        if (curr == null) break;
+                        succ = link(curr, level);
+                    }
+                    if (curr == null || curr.key.compareTo(key) >= 0) break;
+                    pred = curr;
+                    curr = (Node<K, V>) succ;
+                }
+                preds[level] = pred;
+                succs[level] = curr;
+            }
+            return curr != null && curr.key.compareTo(key) == 0;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<K, V>[] newPath() {
+        return (Node<K, V>[]) new Node<?, ?>[MAX_LEVEL];
+    }
+
+    /* Returns the previous value, or null. */
+    public V put(K key, V value) {
+        if (key == null || value == null) throw new NullPointerException();
+        int height = randomLevel();
+        raiseLevelHint(height);
+        Node<K, V>[] preds = newPath();
+        Node<K, V>[] succs = newPath();
+        while (true) {
+            if (find(key, preds, succs)) {
+                Node<K, V> existing = succs[0];
+                V previous = existing.value;
+                if (previous == null) { // removed, maybe not marked yet: finish that, the next find snips it
+                    markDeleted(existing);
+                    continue;
+                }
+                if (casValue(existing, previous, value)) return previous;
+                continue; // lost to another put or a remove
+            }
+            Node<K, V> node = new Node<>(key, value, height);
+            for (int level = 0; level < height; level++) {
+                node.next[level] = succs[level]; // published by the CAS below
+            }
+            if (!casLink(preds[0], 0, succs[0], node)) continue;
+
+            for (int level = 1; level < height; level++) {
+                while (true) {
+                    Object current = link(node, level);
+                    if (current instanceof Marked) return null; // removed while we were linking: stop here
+                    if (current != succs[level] && !casLink(node, level, current, succs[level])) continue;
+                    if (casLink(preds[level], level, succs[level], node)) break;
+                    find(key, preds, succs);
+                }
+            }
+            return null;
+        }
+    }
+
+    public V get(K key) {
+        Node<K, V> node = ceilingNode(key);
+        return node != null && node.key.compareTo(key) == 0 ? node.value : null;
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /* Returns the removed value, or null if key was absent (or another thread removed it first). */
+    public V remove(K key) {
+        Node<K, V>[] preds = newPath();
+        Node<K, V>[] succs = newPath();
+        if (!find(key, preds, succs)) return null;
+        Node<K, V> victim = succs[0];
+        V value;
+        do {
+            value = victim.value;
+            if (value == null) return null; // another remove won
+        } while (!casValue(victim, value, null));
+        markDeleted(victim);
+        find(key, preds, succs); // unlink it everywhere
+        return value;
+    }
+
+    /*
+     * Marks every level of a node whose value is already null, top-down. Idempotent, so a put that runs into a
+     * half-removed node can finish the job instead of waiting for the remover.
+     */
+    private static void markDeleted(Node<?, ?> victim) {
+        for (int level = victim.next.length - 1; level >= 0; level--) {
+            Object succ = link(victim, level);
+            while (!(succ instanceof Marked)) {
+                casLink(victim, level, succ, new Marked((Node<?, ?>) succ));
+                succ = link(victim, level);
+            }
+        }
+    }
+
+    /* Wait-free descent: first unmarked node with key >= target at level 0, or null. */
+    @SuppressWarnings("unchecked")
+    private Node<K, V> ceilingNode(K target) {
+        Node<K, V> pred = head;
+        Node<K, V> curr = null;
+        for (int level = levelHint - 1; level >= 0; level--) {
+            curr = reference(link(pred, level));
+            while (curr != null) {
+                Object succ = link(curr, level);
+                while (succ instanceof Marked marked) { // step over deleted nodes without unlinking them
+                    curr = (Node<K, V>) marked.successor;
+                    if (curr == null) break;
+                    succ = link(curr, level);
+                }
+                if (curr == null || curr.key.compareTo(target) >= 0) break;
+                pred = curr;
+                curr = (Node<K, V>) succ;
+            }
+        }
+        return curr;
+    }
+
+    /* Last unmarked node with key <= target, or null. */
+    @SuppressWarnings("unchecked")
+    private Node<K, V> floorNode(K target) {
+        while (true) {
+            Node<K, V> pred = head;
+            for (int level = levelHint - 1; level >= 0; level--) {
+                Node<K, V> curr = reference(link(pred, level));
+                while (curr != null) {
+                    Object succ = link(curr, level);
+                    while (succ instanceof Marked marked) {
+                        curr = (Node<K, V>) marked.successor;
+                        if (curr == null) break;
+                        succ = link(curr, level);
+                    }
+                    if (curr == null || curr.key.compareTo(target) > 0) break;
+                    pred = curr;
+                    curr = (Node<K, V>) succ;
+                }
+            }
+            if (pred == head) return null;
+            if (pred.value != null) return pred;
+            markDeleted(pred); // pred was removed after we passed it: help unlink it, then search again
+        }
+    }
+
+    /* Greatest entry with key <= key, or null. */
+    public Map.Entry<K, V> floorEntry(K key) {
+        while (true) {
+            Node<K, V> node = floorNode(key);
+            if (node == null) return null;
+            V value = node.value;
+            if (value != null) return new AbstractMap.SimpleImmutableEntry<>(node.key, value);
+        }
+    }
+
+    /* Least entry with key >= key, or null. */
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        for (Node<K, V> node = ceilingNode(key); node != null; node = reference(link(node, 0))) {
+            V value = node.value;
+            if (value != null) return new AbstractMap.SimpleImmutableEntry<>(node.key, value);
+        }
+        return null;
+    }
+
+    /* Visits keys in [fromInclusive, toExclusive) in ascending order; returns the number visited. */
+    @SuppressWarnings("unchecked")
+    public int forEachInRange(K fromInclusive, K toExclusive, BiConsumer<? super K, ? super V> action) {
+        int visited = 0;
+        Node<K, V> node = ceilingNode(fromInclusive);
+        while (node != null && node.key.compareTo(toExclusive) < 0) {
+            V value = node.value; // null once removed, whether or not it is marked yet
+            if (value != null) {
+                action.accept(node.key, value);
+                visited++;
+            }
+            node = reference(link(node, 0));
+        }
+        return visited;
+    }
+
+    /* O(n): counts the bottom-level nodes that still hold a value. */
+    public int size() {
+        int size = 0;
+        for (Node<K, V> node = reference(link(head, 0)); node != null; node = reference(link(node, 0))) {
+            if (node.value != null) size++;
+        }
+        return size;
+    }
+
+    // === Correctness stress and throughput against ConcurrentSkipListMap and SkipListUsingArrays ===
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+    /* Threads insert and remove overlapping keys; then the survivors must match the per-key final owners. */
+    private static void stressTest(int threads) throws InterruptedException {
+        ConcurrentSkipListUsingArrays<Integer, Integer> list = new ConcurrentSkipListUsingArrays<>();
+        int perThread = 50_000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) list.put(i * threads + id, id);     // disjoint keys
+                for (int i = 0; i < perThread; i++) list.put(i, id);                    // shared keys
+                for (int i = 0; i < perThread; i += 2) list.remove(i * threads + id);    // remove half of own
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+
+        ConcurrentSkipListMap<Integer, Integer> expected = new ConcurrentSkipListMap<>();
+        for (int t = 0; t < threads; t++) {
+            for (int i = 1; i < perThread; i += 2) expected.put(i * threads + t, t);
+        }
+        for (int i = 0; i < perThread; i++) {
+            if (!expected.containsKey(i) && list.containsKey(i)) expected.put(i, list.get(i)); // shared key survived
+        }
+        check(list.size() == expected.size(), "size " + list.size() + " != " + expected.size());
+        int[] previous = {Integer.MIN_VALUE};
+        list.forEachInRange(Integer.MIN_VALUE, Integer.MAX_VALUE, (key, value) -> {
+            check(key > previous[0], "order at " + key);
+            check(expected.containsKey(key), "unexpected key " + key);
+            previous[0] = key;
+        });
+        for (int probe = -5; probe < perThread * threads + 5; probe += 7) {
+            Map.Entry<Integer, Integer> floor = list.floorEntry(probe);
+            Map.Entry<Integer, Integer> ceiling = list.ceilingEntry(probe);
+            check(floor == null ? expected.floorKey(probe) == null : floor.getKey().equals(expected.floorKey(probe)),
+                    "floor " + probe);
+            check(ceiling == null ? expected.ceilingKey(probe) == null
+                    : ceiling.getKey().equals(expected.ceilingKey(probe)), "ceiling " + probe);
+        }
+        System.out.printf("stress test with %d threads passed: %d keys, order, floor and ceiling match%n",
+                threads, list.size());
+    }
+
+    /*
+     * Threads put unique values into and remove them from a few shared keys. Every value leaves the list exactly
+     * once - returned by the put that replaced it, by a remove, or still present at the end - so a put racing a
+     * remove can neither lose a value nor hand the same one out twice.
+     */
+    private static void valueConservationTest(int threads) throws InterruptedException {
+        ConcurrentSkipListUsingArrays<Integer, Long> list = new ConcurrentSkipListUsingArrays<>();
+        int perThread = 200_000;
+        ConcurrentSkipListMap<Long, Boolean> retired = new ConcurrentSkipListMap<>();
+        AtomicLong puts = new AtomicLong();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long id = t;
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < perThread; i++) {
+                    int key = random.nextInt(8);
+                    Long out;
+                    if (random.nextBoolean()) {
+                        out = list.put(key, id << 32 | i);
+                        puts.incrementAndGet();
+                    } else {
+                        out = list.remove(key);
+                    }
+                    if (out != null) check(retired.put(out, true) == null, "value " + out + " returned twice");
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+        list.forEachInRange(Integer.MIN_VALUE, Integer.MAX_VALUE,
+                (key, value) -> check(retired.put(value, true) == null, "value " + value + " also returned"));
+        check(retired.size() == puts.get(), puts.get() + " values put, " + retired.size() + " accounted for");
+        System.out.printf("value conservation with %d threads passed: %d values each returned or kept once%n",
+                threads, retired.size());
+    }
+
+    private interface Ops {
+        void run(Integer[] keys, int from, int to);
+    }
+
+    /* Mops/s of ops over consecutive windows of 1000 keys, on every thread for millis. */
+    private static double throughput(int threads, long millis, Integer[] keys, Ops ops) throws InterruptedException {
+        AtomicLong total = new AtomicLong();
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                long count = 0;
+                while (!stop.get()) {
+                    int from = ThreadLocalRandom.current().nextInt(keys.length - 1_000);
+                    ops.run(keys, from, from + 1_000);
+                    count += 1_000;
+                }
+                total.addAndGet(count);
+            });
+            workers[t].start();
+        }
+        Thread.sleep(millis);
+        stop.set(true);
+        for (Thread worker : workers) worker.join();
+        return total.get() / (millis * 1e3);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        stressTest(4);
+        valueConservationTest(4);
+
+        int range = 1_000_000;
+        Random random = new Random(42);
+        Integer[] keys = new Integer[1 << 20];
+        for (int i = 0; i < keys.length; i++) keys[i] = random.nextInt(range);
+
+        ConcurrentSkipListUsingArrays<Integer, Integer> lockFree = new ConcurrentSkipListUsingArrays<>();
+        ConcurrentSkipListMap<Integer, Integer> jdk = new ConcurrentSkipListMap<>();
+        SkipListUsingArrays<Integer, Integer> original = new SkipListUsingArrays<>();
+        for (int i = 0; i < range; i += 2) { // half full, so puts and removes both do work
+            lockFree.put(i, i);
+            jdk.put(i, i);
+            original.put(i, i);
+        }
+
+        // 80% get, 10% put, 10% remove
+        Ops lockFreeOps = (k, from, to) -> {
+            for (int i = from; i < to; i++) {
+                switch (i % 10) {
+                    case 0 -> lockFree.put(k[i], i);
+                    case 5 -> lockFree.remove(k[i]);
+                    default -> lockFree.get(k[i]);
+                }
+            }
+        };
+        Ops jdkOps = (k, from, to) -> {
+            for (int i = from; i < to; i++) {
+                switch (i % 10) {
+                    case 0 -> jdk.put(k[i], i);
+                    case 5 -> jdk.remove(k[i]);
+                    default -> jdk.get(k[i]);
+                }
+            }
+        };
+        Ops originalOps = (k, from, to) -> {
+            for (int i = from; i < to; i++) {
+                synchronized (original) { // not thread-safe
+                    switch (i % 10) {
+                        case 0 -> original.put(k[i], i);
+                        case 5 -> original.remove(k[i]);
+                        default -> original.get(k[i]);
+                    }
+                }
+            }
+        };
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%n80%% get / 10%% put / 10%% remove over %d keys (Mops/s, %d cores)%n", range, cores);
+        System.out.printf("%-8s %14s %22s %26s%n", "threads", "lock-free", "ConcurrentSkipListMap",
+                "SkipListUsingArrays+lock");
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            for (int round = 0; round < 2; round++) { // first round warms up
+                double lockFreeRate = throughput(threads, 700, keys, lockFreeOps);
+                double jdkRate = throughput(threads, 700, keys, jdkOps);
+                double originalRate = throughput(threads, 700, keys, originalOps);
+                if (round == 1) {
+                    System.out.printf("%-8d %14.2f %22.2f %26.2f%n", threads, lockFreeRate, jdkRate, originalRate);
+                }
+            }
+        }
+
+        int[] scanned = {0};
+        long start = System.nanoTime();
+        int visited = lockFree.forEachInRange(100_000, 200_000, (key, value) -> scanned[0]++);
+        System.out.printf("%nrange scan [100000, 200000): %d keys in %.2f ms%n", visited,
+                (System.nanoTime() - start) / 1e6);
+    }
+}
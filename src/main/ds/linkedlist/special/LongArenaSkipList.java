@@ -0,0 +1,348 @@
+package main.ds.linkedlist.special;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/*
+ * Skip list over primitive long keys and values, with every node packed into preallocated arrays (an arena).
+ *
+ * SkipListUsingArrays allocates a Node, an ArrayList and its Object[] per entry, and boxes every key, so a range
+ * scan dereferences three or four heap objects per step. Here a node is just an index:
+ *
+ *      keys[n], values[n]       the entry
+ *      height[n], linkStart[n]  its tower: links[linkStart[n] + level] = index of the next node at that level
+ *
+ * Index 0 is the head (a tower of MAX_LEVEL links, key = -infinity) and NIL = 0 also ends every level, as the
+ * head is never anybody's successor. The arrays grow by doubling; removed nodes go on a free list per height
+ * and are reused by the next insert of that height.
+ *
+ * putAllSorted inserts an ascending run with a finger: the predecessors found for one key are the starting
+ * points for the next, so appending ids larger than everything present costs O(height) per key instead of
+ * O(log n), and the run's nodes end up next to each other in the arena. Range scans then walk level 0 through
+ * mostly sequential memory.
+ * Time Complexity  : get / put / remove O(log n) expected; putAllSorted O(k + height) for k appended keys;
+ *                    a range scan O(log n + k).
+ * Space Complexity : ~29 bytes per entry: keys and values 8 each, linkStart 4, height 1, and 2 links of 4 on
+ *                    average; up to twice that just after the arrays double.
+ */
+public class LongArenaSkipList {
+    private static final int MAX_LEVEL = 32;
+    private static final int HEAD = 0;
+    private static final int NIL = 0;
+
+    /* Receives the entries of a range scan. */
+    public interface EntryVisitor {
+        void visit(long key, long value);
+    }
+
+    private long[] keys;
+    private long[] values;
+    private int[] linkStart;
+    private byte[] height;
+    private int[] links;
+    private int nodeCount = 1; // next unused node index; 0 is the head
+    private int linkCount;     // next unused link slot
+    private final int[] freeByHeight = new int[MAX_LEVEL + 1]; // node index, chained through its first link
+    private int level = 1;     // levels in use
+    private int size;
+    private long seed = 0x9E3779B97F4A7C15L;
+    private final int[] update = new int[MAX_LEVEL]; // predecessors of the last search; the finger of putAllSorted
+
+    public LongArenaSkipList() {
+        this(1 << 10);
+    }
+
+    /* Preallocates room for expectedSize entries, so building to that size never copies the arrays. */
+    public LongArenaSkipList(int expectedSize) {
+        int nodes = Math.max(2, expectedSize + 1);
+        keys = new long[nodes];
+        values = new long[nodes];
+        linkStart = new int[nodes];
+        height = new byte[nodes];
+        links = new int[MAX_LEVEL + 2 * nodes];
+        height[HEAD] = MAX_LEVEL;
+        linkCount = MAX_LEVEL; // head tower, all NIL
+    }
+
+    private int randomHeight() {
+        seed ^= seed << 13; // xorshift64: no Random object on the insert path
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return Math.min(MAX_LEVEL, Long.numberOfTrailingZeros(seed | (1L << 62)) + 1);
+    }
+
+    private int next(int node, int lvl) {
+        return links[linkStart[node] + lvl];
+    }
+
+    private int allocate(long key, long value, int h) {
+        int node = freeByHeight[h];
+        if (node != NIL) {
+            freeByHeight[h] = links[linkStart[node]];
+        } else {
+            if (nodeCount == keys.length) {
+                int capacity = keys.length * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                values = Arrays.copyOf(values, capacity);
+                linkStart = Arrays.copyOf(linkStart, capacity);
+                height = Arrays.copyOf(height, capacity);
+            }
+            if (linkCount + h > links.length) {
+                links = Arrays.copyOf(links, Math.max(links.length * 2, linkCount + h));
+            }
+            node = nodeCount++;
+            linkStart[node] = linkCount;
+            height[node] = (byte) h;
+            linkCount += h;
+        }
+        keys[node] = key;
+        values[node] = value;
+        return node;
+    }
+
+    /* Walks from each level's current predecessor in update[] to the last node with key < target. */
+    private void seek(long target, int fromNode) {
+        int node = fromNode;
+        for (int lvl = level - 1; lvl >= 0; lvl--) {
+            int finger = update[lvl];
+            if (finger != HEAD && (node == HEAD || keys[finger] > keys[node])) node = finger;
+            for (int nxt = next(node, lvl); nxt != NIL && keys[nxt] < target; nxt = next(node, lvl)) {
+                node = nxt;
+            }
+            update[lvl] = node;
+        }
+    }
+
+    private void resetFinger() {
+        Arrays.fill(update, HEAD);
+    }
+
+    public void put(long key, long value) {
+        resetFinger();
+        insert(key, value);
+    }
+
+    /* Inserts after seek(key) from the current finger; update[] then holds the predecessors for larger keys. */
+    private void insert(long key, long value) {
+        seek(key, HEAD);
+        int candidate = next(update[0], 0);
+        if (candidate != NIL && keys[candidate] == key) {
+            values[candidate] = value;
+            return;
+        }
+        int h = randomHeight();
+        if (h > level) {
+            for (int lvl = level; lvl < h; lvl++) update[lvl] = HEAD;
+            level = h;
+        }
+        int node = allocate(key, value, h);
+        int start = linkStart[node];
+        for (int lvl = 0; lvl < h; lvl++) {
+            int pred = update[lvl];
+            links[start + lvl] = next(pred, lvl);
+            links[linkStart[pred] + lvl] = node;
+            update[lvl] = node; // the next (larger) key of a sorted run starts here
+        }
+        size++;
+    }
+
+    /*
+     * Inserts keys[from, to) with their values; keys must be strictly ascending within the run (they may
+     * interleave with keys already present).
+     */
+    public void putAllSorted(long[] runKeys, long[] runValues, int from, int to) {
+        resetFinger();
+        for (int i = from; i < to; i++) {
+            if (i > from && runKeys[i] <= runKeys[i - 1]) {
+                throw new IllegalArgumentException("run not strictly ascending at index " + i);
+            }
+            insert(runKeys[i], runValues[i]);
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) != NIL;
+    }
+
+    public long get(long key, long defaultValue) {
+        int node = find(key);
+        return node == NIL ? defaultValue : values[node];
+    }
+
+    private int find(long key) {
+        int node = ceiling(key);
+        return node != NIL && keys[node] == key ? node : NIL;
+    }
+
+    /* First node with key >= target, or NIL. */
+    private int ceiling(long target) {
+        int node = HEAD;
+        for (int lvl = level - 1; lvl >= 0; lvl--) {
+            for (int nxt = next(node, lvl); nxt != NIL && keys[nxt] < target; nxt = next(node, lvl)) {
+                node = nxt;
+            }
+        }
+        return next(node, 0);
+    }
+
+    public boolean remove(long key) {
+        resetFinger();
+        seek(key, HEAD);
+        int node = next(update[0], 0);
+        if (node == NIL || keys[node] != key) return false;
+        int h = height[node];
+        for (int lvl = 0; lvl < h; lvl++) {
+            links[linkStart[update[lvl]] + lvl] = next(node, lvl);
+        }
+        links[linkStart[node]] = freeByHeight[h];
+        freeByHeight[h] = node;
+        while (level > 1 && next(HEAD, level - 1) == NIL) level--;
+        size--;
+        return true;
+    }
+
+    /* Smallest key >= key, or Long.MIN_VALUE if there is none. */
+    public long ceilingKey(long key) {
+        int node = ceiling(key);
+        return node == NIL ? Long.MIN_VALUE : keys[node];
+    }
+
+    /* Visits entries with fromInclusive <= key < toExclusive in ascending order; returns how many. */
+    public int forEachInRange(long fromInclusive, long toExclusive, EntryVisitor visitor) {
+        int count = 0;
+        for (int node = ceiling(fromInclusive); node != NIL && keys[node] < toExclusive; node = next(node, 0)) {
+            visitor.visit(keys[node], values[node]);
+            count++;
+        }
+        return count;
+    }
+
+    /*
+     * Copies up to keysOut.length entries with key >= fromInclusive and key < toExclusive; returns how many.
+     * Continue a long scan from keysOut[count - 1] + 1.
+     */
+    public int scan(long fromInclusive, long toExclusive, long[] keysOut, long[] valuesOut) {
+        int count = 0;
+        for (int node = ceiling(fromInclusive); node != NIL && count < keysOut.length && keys[node] < toExclusive;
+             node = next(node, 0)) {
+            keysOut[count] = keys[node];
+            valuesOut[count] = values[node];
+            count++;
+        }
+        return count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // === Scan throughput ===
+
+    /* Time-series style ids: ascending, with random gaps. */
+    private static long[] ids(int n, long seed) {
+        long[] ids = new long[n];
+        long id = 1_700_000_000_000L;
+        long x = seed;
+        for (int i = 0; i < n; i++) {
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+            id += 1 + (x & 15);
+            ids[i] = id;
+        }
+        return ids;
+    }
+
+    private static double rate(long entries, long nanos) {
+        return entries / (nanos / 1e9) / 1e6;
+    }
+
+    public static void main(String[] args) {
+        // Against the boxed structures at 1M keys.
+        int small = 1_000_000;
+        long[] smallIds = ids(small, 7);
+        LongArenaSkipList arena = new LongArenaSkipList(small);
+        arena.putAllSorted(smallIds, smallIds, 0, small);
+        ConcurrentSkipListMap<Long, Long> jdk = new ConcurrentSkipListMap<>();
+        SkipListUsingArrays<Long, Long> original = new SkipListUsingArrays<>();
+        for (long id : smallIds) {
+            jdk.put(id, id);
+            original.put(id, id);
+        }
+        // SkipListUsingArrays has no iteration: the closest it gets to a range scan is a get per id.
+        System.out.printf("full scan of %d keys (M entries/s)%n%-26s %10s%n", small, "", "rate");
+        for (int round = 0; round < 3; round++) {
+            long[] sum = {0};
+            long start = System.nanoTime();
+            arena.forEachInRange(Long.MIN_VALUE, Long.MAX_VALUE, (key, value) -> sum[0] += value);
+            long arenaNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (Map.Entry<Long, Long> entry : jdk.entrySet()) sum[0] += entry.getValue();
+            long jdkNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (long id : smallIds) sum[0] += original.get(id);
+            long originalNanos = System.nanoTime() - start;
+
+            if (sum[0] != 3 * Arrays.stream(smallIds).sum()) throw new AssertionError("scan sum");
+            if (round == 2) {
+                System.out.printf("%-26s %10.1f%n", "LongArenaSkipList", rate(small, arenaNanos));
+                System.out.printf("%-26s %10.1f%n", "ConcurrentSkipListMap", rate(small, jdkNanos));
+                System.out.printf("%-26s %10.1f%n", "SkipListUsingArrays (get)", rate(small, originalNanos));
+            }
+        }
+        jdk = null;
+        original = null;
+
+        // 10M time-series ids, built in sorted batches of 100K.
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        long[] allIds = ids(n, 11);
+        LongArenaSkipList index = new LongArenaSkipList(n);
+        long start = System.nanoTime();
+        for (int from = 0; from < n; from += 100_000) {
+            index.putAllSorted(allIds, allIds, from, Math.min(n, from + 100_000));
+        }
+        long buildNanos = System.nanoTime() - start;
+        System.out.printf("%nbuilt %d keys with putAllSorted in %.0f ms (%.1f M inserts/s)%n", index.size(),
+                buildNanos / 1e6, rate(n, buildNanos));
+
+        long[] keyBuffer = new long[4_096];
+        long[] valueBuffer = new long[4_096];
+        for (int round = 0; round < 3; round++) {
+            long checksum = 0;
+            long scanned = 0;
+            start = System.nanoTime();
+            long from = Long.MIN_VALUE;
+            int count;
+            while ((count = index.scan(from, Long.MAX_VALUE, keyBuffer, valueBuffer)) > 0) {
+                for (int i = 0; i < count; i++) checksum += valueBuffer[i];
+                scanned += count;
+                from = keyBuffer[count - 1] + 1;
+            }
+            long fullNanos = System.nanoTime() - start;
+            if (scanned != n || checksum != Arrays.stream(allIds).sum()) throw new AssertionError("full scan");
+
+            // Short range queries: 1000 consecutive ids starting at a random existing id.
+            long rangeEntries = 0;
+            long x = 99;
+            start = System.nanoTime();
+            for (int q = 0; q < 10_000; q++) {
+                x ^= x << 13;
+                x ^= x >>> 7;
+                x ^= x << 17;
+                int at = (int) Math.floorMod(x, (long) n - 1_000);
+                rangeEntries += index.scan(allIds[at], allIds[at + 1_000], keyBuffer, valueBuffer);
+            }
+            long rangeNanos = System.nanoTime() - start;
+            if (rangeEntries != 10_000L * 1_000) throw new AssertionError("range scan");
+            if (round == 2) {
+                System.out.printf("full scan of %d keys: %.0f ms, %.1f M entries/s%n", n, fullNanos / 1e6,
+                        rate(n, fullNanos));
+                System.out.printf("10000 scans of 1000 keys: %.1f M entries/s (%.1f us per query)%n",
+                        rate(rangeEntries, rangeNanos), rangeNanos / 1e3 / 10_000);
+            }
+        }
+    }
+}
@@ -57,7 +57,7 @@ public class SkipListUsingArrays<K extends Comparable<K>, V> {
         public Node(K key, V value, int level) {
             this.key = key;
             this.value = value;
-            next = new ArrayList<>(level);
+            next = new ArrayList<>(Collections.nCopies(level, null)); // one slot per level, linked bottom-up by put
         }
     }
 
@@ -84,16 +84,24 @@ public class SkipListUsingArrays<K extends Comparable<K>, V> {
             maxLevel = level;
         }
 
-        Node newNode = new Node(key, value, level);
+        List<Node> update = new ArrayList<>(Collections.nCopies(maxLevel, null));
         Node current = head;
         for (int i = maxLevel - 1; i >= 0; i--) {
             while (current.next.get(i) != null && current.next.get(i).key.compareTo(key) < 0) {
                 current = current.next.get(i);
             }
-            if (i < level) {
-                newNode.next.add(i, current.next.get(i));
-                current.next.set(i, newNode);
-            }
+            update.set(i, current);
+        }
+        Node existing = current.next.get(0);
+        if (existing != null && existing.key.compareTo(key) == 0) {
+            existing.value = value;
+            return;
+        }
+
+        Node newNode = new Node(key, value, level);
+        for (int i = 0; i < level; i++) {
+            newNode.next.set(i, update.get(i).next.get(i));
+            update.get(i).next.set(i, newNode);
         }
     }
 
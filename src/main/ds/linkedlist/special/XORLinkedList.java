@@ -77,6 +77,8 @@ public class XORLinkedList<E> {
         return (Node<E>) a; // No type casting required
     }
 
+    // An identity hash code is not an address: nothing maps it back to the node, so the list cannot walk
+    // backwards (or, after the first node, forwards). ArenaXORLinkedList XORs array indices instead.
     private long getAddress(Object node) {
         return node != null ? System.identityHashCode(node) : 0;
     }
@@ -0,0 +1,600 @@
+package main.ds.tree.trie;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/*
+    Trie over the UTF-8 bytes of its keys whose nodes adapt to their fan-out, after the Adaptive Radix Tree
+    (Leis et al., "The Adaptive Radix Tree: ARTful Indexing for Main-Memory Databases").
+
+    RadixTrieInterface gives every node a 26-slot child array: about 120 bytes of array even for a leaf, and
+    no way to store anything outside a-z. Here a node only grows as it gains children:
+
+        Node0    leaf, no child storage
+        Node4    up to 4 children:   sorted keys packed in an int + 4 child fields, linear search
+        Node16   up to 16 children:  sorted keys + children, binary search
+        Node48   up to 48 children:  256-byte index from key byte to one of 48 child slots
+        Node256  up to 256 children: child array indexed directly by the key byte
+
+    Most trie nodes have one or two children, so most nodes are Node0 or Node4, and memory tracks the real
+    fan-out. Since keys are bytes, any String (URLs, product names in any script) can be stored.
+    As in ART, paths are compressed: a node stores the bytes of any single-child chain below its key byte as
+    its prefix, and a new key's remaining bytes go into one leaf, so a URL does not become a chain of 60 nodes.
+    An insert that diverges inside a prefix splits the node there.
+*/
+public class AdaptiveRadixTrie {
+
+    private static final byte[] NO_PREFIX = new byte[0];
+
+    abstract static class Node {
+        boolean isEndOfWord;
+        byte[] prefix = NO_PREFIX; // compressed path between the key byte leading here and this node
+
+        abstract Node find(int key);
+
+        /* Adds a child for a key that is not present; returns this node, or a larger copy if it was full. */
+        abstract Node add(int key, Node child);
+
+        abstract void replace(int key, Node child);
+
+        abstract int childCount();
+
+        /* Children with their key bytes, in key order. */
+        abstract void forEachChild(ChildVisitor visitor);
+
+        <T extends Node> T copyHeaderTo(T grown) {
+            grown.isEndOfWord = isEndOfWord;
+            grown.prefix = prefix;
+            return grown;
+        }
+    }
+
+    interface ChildVisitor {
+        void visit(int key, Node child);
+    }
+
+    static final class Node0 extends Node {
+        Node find(int key) {
+            return null;
+        }
+
+        Node add(int key, Node child) {
+            return copyHeaderTo(new Node4()).add(key, child);
+        }
+
+        void replace(int key, Node child) {
+            throw new IllegalStateException("leaf has no children");
+        }
+
+        int childCount() {
+            return 0;
+        }
+
+        void forEachChild(ChildVisitor visitor) {
+        }
+    }
+
+    static final class Node4 extends Node {
+        int keys; // key byte i in bits 8i .. 8i + 7, sorted
+        byte count;
+        Node child0, child1, child2, child3; // fields, not arrays: one object to load per level
+
+        private int key(int i) {
+            return (keys >>> (i << 3)) & 0xFF;
+        }
+
+        private Node child(int i) {
+            switch (i) {
+                case 0: return child0;
+                case 1: return child1;
+                case 2: return child2;
+                default: return child3;
+            }
+        }
+
+        private void set(int i, int key, Node child) {
+            keys = keys & ~(0xFF << (i << 3)) | key << (i << 3);
+            switch (i) {
+                case 0: child0 = child; break;
+                case 1: child1 = child; break;
+                case 2: child2 = child; break;
+                default: child3 = child;
+            }
+        }
+
+        Node find(int key) {
+            for (int i = 0; i < count; i++) {
+                if (key(i) == key) return child(i);
+            }
+            return null;
+        }
+
+        Node add(int key, Node child) {
+            if (count == 4) {
+                Node16 grown = copyHeaderTo(new Node16());
+                for (int i = 0; i < 4; i++) {
+                    grown.keys[i] = (byte) key(i);
+                    grown.children[i] = child(i);
+                }
+                grown.count = 4;
+                return grown.add(key, child);
+            }
+            int i = count;
+            while (i > 0 && key(i - 1) > key) { // keep keys sorted
+                set(i, key(i - 1), child(i - 1));
+                i--;
+            }
+            set(i, key, child);
+            count++;
+            return this;
+        }
+
+        void replace(int key, Node child) {
+            for (int i = 0; i < count; i++) {
+                if (key(i) == key) set(i, key, child);
+            }
+        }
+
+        int childCount() {
+            return count;
+        }
+
+        void forEachChild(ChildVisitor visitor) {
+            for (int i = 0; i < count; i++) visitor.visit(key(i), child(i));
+        }
+    }
+
+    static final class Node16 extends Node {
+        final byte[] keys = new byte[16];
+        final Node[] children = new Node[16];
+        byte count;
+
+        private int indexOf(int key) {
+            int lo = 0, hi = count - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int k = keys[mid] & 0xFF;
+                if (k < key) lo = mid + 1;
+                else if (k > key) hi = mid - 1;
+                else return mid;
+            }
+            return -(lo + 1);
+        }
+
+        Node find(int key) {
+            int i = indexOf(key);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node add(int key, Node child) {
+            if (count == 16) {
+                Node48 grown = copyHeaderTo(new Node48());
+                for (int i = 0; i < 16; i++) grown.add(keys[i] & 0xFF, children[i]);
+                return grown.add(key, child);
+            }
+            int at = -(indexOf(key) + 1);
+            System.arraycopy(keys, at, keys, at + 1, count - at);
+            System.arraycopy(children, at, children, at + 1, count - at);
+            keys[at] = (byte) key;
+            children[at] = child;
+            count++;
+            return this;
+        }
+
+        void replace(int key, Node child) {
+            children[indexOf(key)] = child;
+        }
+
+        int childCount() {
+            return count;
+        }
+
+        void forEachChild(ChildVisitor visitor) {
+            for (int i = 0; i < count; i++) visitor.visit(keys[i] & 0xFF, children[i]);
+        }
+    }
+
+    static final class Node48 extends Node {
+        final byte[] index = new byte[256]; // slot + 1, or 0 if absent
+        final Node[] children = new Node[48];
+        int count;
+
+        Node find(int key) {
+            int slot = index[key];
+            return slot == 0 ? null : children[slot - 1];
+        }
+
+        Node add(int key, Node child) {
+            if (count == 48) {
+                Node256 grown = copyHeaderTo(new Node256());
+                for (int k = 0; k < 256; k++) {
+                    if (index[k] != 0) grown.add(k, children[index[k] - 1]);
+                }
+                return grown.add(key, child);
+            }
+            children[count] = child;
+            index[key] = (byte) ++count;
+            return this;
+        }
+
+        void replace(int key, Node child) {
+            children[index[key] - 1] = child;
+        }
+
+        int childCount() {
+            return count;
+        }
+
+        void forEachChild(ChildVisitor visitor) {
+            for (int k = 0; k < 256; k++) {
+                if (index[k] != 0) visitor.visit(k, children[index[k] - 1]);
+            }
+        }
+    }
+
+    static final class Node256 extends Node {
+        final Node[] children = new Node[256];
+        int count;
+
+        Node find(int key) {
+            return children[key];
+        }
+
+        Node add(int key, Node child) {
+            children[key] = child;
+            count++;
+            return this;
+        }
+
+        void replace(int key, Node child) {
+            children[key] = child;
+        }
+
+        int childCount() {
+            return count;
+        }
+
+        void forEachChild(ChildVisitor visitor) {
+            for (int k = 0; k < 256; k++) {
+                if (children[k] != null) visitor.visit(k, children[k]);
+            }
+        }
+    }
+
+    private Node root = new Node0();
+    private int size;
+
+    /*
+     * The time complexity of inserting a word is O(B), B being its length in UTF-8 bytes;
+     * a node that fills up is copied into the next larger type, which is O(1) amortized.
+     */
+    public void insert(String word) {
+        insert(word.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void insert(byte[] key) {
+        Node parent = null;
+        int parentKey = 0;
+        Node node = root;
+        int depth = 0;
+        while (true) {
+            byte[] prefix = node.prefix;
+            int matched = matchPrefix(prefix, key, depth);
+            if (matched < prefix.length) {
+                // Diverges inside the prefix: a new node takes the common part, the old node keeps the rest.
+                Node4 split = new Node4();
+                split.prefix = Arrays.copyOf(prefix, matched);
+                node.prefix = Arrays.copyOfRange(prefix, matched + 1, prefix.length);
+                split.add(prefix[matched] & 0xFF, node);
+                depth += matched;
+                if (depth == key.length) {
+                    split.isEndOfWord = true;
+                } else {
+                    split.add(key[depth] & 0xFF, leaf(key, depth + 1));
+                }
+                parent.replace(parentKey, split); // the root has no prefix, so node is never the root here
+                size++;
+                return;
+            }
+            depth += prefix.length;
+            if (depth == key.length) {
+                if (!node.isEndOfWord) {
+                    node.isEndOfWord = true;
+                    size++;
+                }
+                return;
+            }
+            int k = key[depth] & 0xFF;
+            Node child = node.find(k);
+            if (child == null) {
+                Node grown = node.add(k, leaf(key, depth + 1));
+                if (grown != node) {
+                    if (parent == null) root = grown; else parent.replace(parentKey, grown);
+                }
+                size++;
+                return;
+            }
+            parent = node;
+            parentKey = k;
+            node = child;
+            depth++;
+        }
+    }
+
+    /* A leaf for key[from..]: the remaining bytes become its prefix. */
+    private static Node leaf(byte[] key, int from) {
+        Node0 leaf = new Node0();
+        leaf.isEndOfWord = true;
+        if (from < key.length) leaf.prefix = Arrays.copyOfRange(key, from, key.length);
+        return leaf;
+    }
+
+    /* How many bytes of prefix match key from depth on. */
+    private static int matchPrefix(byte[] prefix, byte[] key, int depth) {
+        int length = Math.min(prefix.length, key.length - depth);
+        int i = 0;
+        while (i < length && prefix[i] == key[depth + i]) i++;
+        return i;
+    }
+
+    /**
+     * Searches word
+     * @Time-Complexity O(B): each level costs at most a binary search over 16 keys plus its prefix compare.
+     * @Space-Complexity O(1) for ASCII words, O(B) otherwise (the encoded key).
+     */
+    public boolean search(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) >= 0x80) return search(word.getBytes(StandardCharsets.UTF_8));
+        }
+        // ASCII: every char is its own UTF-8 byte, so the String is walked without encoding it.
+        Node node = root;
+        int depth = 0;
+        while (node != null) {
+            byte[] prefix = node.prefix;
+            if (prefix.length > word.length() - depth) return false;
+            for (int i = 0; i < prefix.length; i++) {
+                if (prefix[i] != word.charAt(depth + i)) return false;
+            }
+            depth += prefix.length;
+            if (depth == word.length()) return node.isEndOfWord;
+            node = node.find(word.charAt(depth++));
+        }
+        return false;
+    }
+
+    public boolean search(byte[] key) {
+        Node node = root;
+        int depth = 0;
+        while (node != null) {
+            byte[] prefix = node.prefix;
+            if (matchPrefix(prefix, key, depth) != prefix.length) return false;
+            depth += prefix.length;
+            if (depth == key.length) return node.isEndOfWord;
+            node = node.find(key[depth++] & 0xFF);
+        }
+        return false;
+    }
+
+    /*
+     * Node below which every key starts with key: the walk ends at that node or inside its prefix.
+     * depth[0] is set to the number of key bytes consumed before that node's prefix.
+     */
+    private Node prefixNode(byte[] key, int[] depth) {
+        Node node = root;
+        int d = 0;
+        while (true) {
+            int matched = matchPrefix(node.prefix, key, d);
+            if (d + matched == key.length) break;
+            if (matched < node.prefix.length) return null;
+            d += matched;
+            node = node.find(key[d] & 0xFF);
+            if (node == null) return null;
+            d++;
+        }
+        depth[0] = d;
+        return node;
+    }
+
+    public boolean startsWith(String prefix) {
+        return prefixNode(prefix.getBytes(StandardCharsets.UTF_8), new int[1]) != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /* Words starting with prefix, in UTF-8 byte order (which is code point order). */
+    public List<String> wordsWithPrefix(String prefix) {
+        List<String> words = new ArrayList<>();
+        byte[] start = prefix.getBytes(StandardCharsets.UTF_8);
+        int[] depth = new int[1];
+        Node node = prefixNode(start, depth);
+        if (node != null) collect(node, new ByteBuilder(start, depth[0]), words);
+        return words;
+    }
+
+    /* key holds the bytes up to and including the key byte of node. */
+    private static void collect(Node node, ByteBuilder key, List<String> words) {
+        int length = key.length;
+        key.append(node.prefix);
+        if (node.isEndOfWord) words.add(new String(key.bytes, 0, key.length, StandardCharsets.UTF_8));
+        node.forEachChild((k, child) -> {
+            key.append(k);
+            collect(child, key, words);
+            key.length--;
+        });
+        key.length = length;
+    }
+
+    private static final class ByteBuilder {
+        byte[] bytes;
+        int length;
+
+        ByteBuilder(byte[] start, int length) {
+            this.bytes = Arrays.copyOf(start, Math.max(64, start.length * 2));
+            this.length = length;
+        }
+
+        void append(int b) {
+            if (length == bytes.length) bytes = Arrays.copyOf(bytes, length * 2);
+            bytes[length++] = (byte) b;
+        }
+
+        void append(byte[] more) {
+            if (length + more.length > bytes.length) bytes = Arrays.copyOf(bytes, 2 * (length + more.length));
+            System.arraycopy(more, 0, bytes, length, more.length);
+            length += more.length;
+        }
+    }
+
+    /* Number of nodes of each type: Node0, Node4, Node16, Node48, Node256. */
+    public int[] nodeTypeCounts() {
+        int[] counts = new int[5];
+        countNodes(root, counts);
+        return counts;
+    }
+
+    private static void countNodes(Node node, int[] counts) {
+        counts[node instanceof Node0 ? 0 : node instanceof Node4 ? 1 : node instanceof Node16 ? 2
+                : node instanceof Node48 ? 3 : 4]++;
+        node.forEachChild((k, child) -> countNodes(child, counts));
+    }
+
+    /* Nodes the same keys would take without path compression: one per distinct prefix. */
+    long uncompressedNodeCount() {
+        return uncompressedNodes(root);
+    }
+
+    private static long uncompressedNodes(Node node) {
+        long[] count = {1 + node.prefix.length};
+        node.forEachChild((k, child) -> count[0] += uncompressedNodes(child));
+        return count[0];
+    }
+
+    // === Memory and lookup speed against the 26-slot RadixTrieInterface ===
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static List<String> englishLikeWords(int count, Random random) {
+        String[] syllables = {"the", "re", "in", "er", "an", "ing", "on", "at", "en", "ou", "ed", "st", "al",
+                "es", "or", "ti", "ar", "te", "ng", "is", "ch", "le", "sh", "ly", "tion", "ment", "ous", "pre"};
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int s = 1 + random.nextInt(4); s > 0; s--) word.append(syllables[random.nextInt(syllables.length)]);
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    private static List<String> urls(int count, Random random) {
+        String[] hosts = {"www.example.com", "shop.example.co.uk", "docs.example.org", "news.example.de",
+                "api.example.io", "blog.example.net", "m.example.jp", "cdn.example.com"};
+        String[] segments = {"products", "category", "item", "search", "user", "profile", "cart", "checkout",
+                "article", "2024", "2025", "en", "de", "images", "thumbs", "düsseldorf", "東京", "kraków"};
+        List<String> urls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder url = new StringBuilder(random.nextInt(10) < 9 ? "https://" : "http://");
+            url.append(hosts[random.nextInt(hosts.length)]);
+            for (int s = 1 + random.nextInt(4); s > 0; s--) url.append('/').append(segments[random.nextInt(segments.length)]);
+            url.append("?id=").append(random.nextInt(1_000_000));
+            urls.add(url.toString());
+        }
+        return urls;
+    }
+
+    private static double lookupNanos(Predicate<String> lookup, String[] queries) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            int hits = 0;
+            long start = System.nanoTime();
+            for (String query : queries) if (lookup.test(query)) hits++;
+            best = Math.min(best, (double) (System.nanoTime() - start) / queries.length);
+            if (hits < 0) System.out.println(hits); // keep the loop alive
+        }
+        return best;
+    }
+
+    private static String[] queries(List<String> keys, Random random) {
+        String[] queries = new String[1 << 19];
+        for (int i = 0; i < queries.length; i++) {
+            String key = keys.get(random.nextInt(keys.size()));
+            queries[i] = random.nextBoolean() ? key : key.substring(0, key.length() - 1) + "q"; // hits and misses
+        }
+        return queries;
+    }
+
+    public static void main(String[] args) {
+        AdaptiveRadixTrie demo = new AdaptiveRadixTrie();
+        for (String word : new String[]{"apple", "apps", "application", "äpfel", "東京", "東京都", "https://a.b/c"}) {
+            demo.insert(word);
+        }
+        System.out.println("search(\"東京\") = " + demo.search("東京") + ", search(\"東\") = " + demo.search("東"));
+        System.out.println("wordsWithPrefix(\"app\") = " + demo.wordsWithPrefix("app"));
+        System.out.println("wordsWithPrefix(\"東\") = " + demo.wordsWithPrefix("東"));
+
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        Random random = new Random(7);
+
+        // English-like words: both tries apply.
+        List<String> words = englishLikeWords(n, random);
+        long before = usedHeap();
+        RadixTrieInterface fixed = new RadixTrieInterface();
+        for (String word : words) fixed.insert(word);
+        long fixedBytes = usedHeap() - before;
+        before = usedHeap();
+        AdaptiveRadixTrie adaptive = new AdaptiveRadixTrie();
+        for (String word : words) adaptive.insert(word);
+        long adaptiveBytes = usedHeap() - before;
+        String[] wordQueries = queries(words, random);
+        for (String query : wordQueries) {
+            if (fixed.search(query) != adaptive.search(query)) throw new AssertionError("search(" + query + ") differs");
+        }
+        int[] types = adaptive.nodeTypeCounts();
+        int nodes = types[0] + types[1] + types[2] + types[3] + types[4];
+        System.out.printf("%n%d English-like words (%d distinct), %d nodes: Node0 %d, Node4 %d, Node16 %d, Node48 %d, Node256 %d%n",
+                n, adaptive.size(), nodes, types[0], types[1], types[2], types[3], types[4]);
+        System.out.printf("%-28s %7.1f MB (%5.1f bytes/word), search %5.0f ns/op%n", "RadixTrieInterface (26)",
+                fixedBytes / 1e6, (double) fixedBytes / adaptive.size(), lookupNanos(fixed::search, wordQueries));
+        System.out.printf("%-28s %7.1f MB (%5.1f bytes/word), search %5.0f ns/op%n", "AdaptiveRadixTrie",
+                adaptiveBytes / 1e6, (double) adaptiveBytes / adaptive.size(), lookupNanos(adaptive::search, wordQueries));
+
+        // URLs with some non-ASCII path segments: the 26-slot trie cannot hold them at all.
+        words = null;
+        fixed = null;
+        adaptive = null;
+        List<String> urls = urls(n, random);
+        before = usedHeap();
+        AdaptiveRadixTrie urlTrie = new AdaptiveRadixTrie();
+        for (String url : urls) urlTrie.insert(url);
+        long urlBytes = usedHeap() - before;
+        before = usedHeap();
+        HashSet<String> urlSet = new HashSet<>(urls);
+        long setBytes = usedHeap() - before;
+        String[] urlQueries = queries(urls, random);
+        for (String query : urlQueries) {
+            if (urlSet.contains(query) != urlTrie.search(query)) throw new AssertionError("search(" + query + ") differs");
+        }
+        types = urlTrie.nodeTypeCounts();
+        nodes = types[0] + types[1] + types[2] + types[3] + types[4];
+        System.out.printf("%n%d URLs (%d distinct), %d nodes: Node0 %d, Node4 %d, Node16 %d, Node48 %d, Node256 %d%n",
+                n, urlTrie.size(), nodes, types[0], types[1], types[2], types[3], types[4]);
+        System.out.printf("%-28s %7s (a-z only: cannot store URLs)%n", "RadixTrieInterface (26)", "-");
+        System.out.printf("%-28s %7.1f MB (computed: %d uncompressed nodes of 24 + 1040 bytes)%n",
+                "fixed 256-slot byte trie", urlTrie.uncompressedNodeCount() * (24.0 + 16 + 256 * 4) / 1e6,
+                urlTrie.uncompressedNodeCount());
+        System.out.printf("%-28s %7.1f MB (%5.1f bytes/URL), search %5.0f ns/op%n", "AdaptiveRadixTrie",
+                urlBytes / 1e6, (double) urlBytes / urlTrie.size(), lookupNanos(urlTrie::search, urlQueries));
+        System.out.printf("%-28s %7.1f MB (table only, Strings excluded), contains %5.0f ns/op%n", "HashSet<String>",
+                setBytes / 1e6, lookupNanos(urlSet::contains, urlQueries));
+    }
+}
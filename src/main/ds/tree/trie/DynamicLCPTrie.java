@@ -2,52 +2,155 @@ package main.ds.tree.trie;
 
 /**
  *  You're given a stream of strings where you need to maintain the longest common prefix as strings are added dynamically.
+ *  -
+ *  Strings can also be removed, so the LCP can grow again. Every node counts the words in its subtree (a word
+ *  inserted twice counts twice), the words ending at it, and its non-empty children:
+ *      the LCP of the set is the path from the root down to the first node where a word ends or the words
+ *      branch (endCount > 0 or liveChildren != 1).
+ *  The current LCP is kept as a prefix that is known to be common, plus the node it leads to:
+ *      insert only shortens it, to the common prefix of the LCP and the new word, found while walking the word.
+ *      delete keeps it valid, since the remaining words still share it, but it may now be extendable.
+ *      getLCP first extends it downwards as far as the extension rule allows.
+ *  Each extension step undoes a step some insert shortened (or a character of an inserted word), so getLCP is
+ *  O(1) amortized.
+ *  -
+ *  Time Complexity  : insert / delete O(L); getLCP O(1) amortized, plus building the String when it changed.
+ *  Space Complexity : O(total length of the distinct words); emptied nodes are removed on delete.
  */
 public class DynamicLCPTrie {
     static class TrieNode {
         TrieNode[] children = new TrieNode[26];
         boolean isEndOfWord;
+        int count;        // words in this subtree, with multiplicity
+        int endCount;     // words ending here, with multiplicity
+        int liveChildren; // non-null children
     }
     private final TrieNode root;
-    private String lcp;
+    private final StringBuilder lcp = new StringBuilder(); // a prefix of the true LCP
+    private TrieNode lcpNode;                             // node at the end of lcp
+    private boolean mayExtend;                            // a delete happened since lcp was last extended
+    private String lcpString;                             // cached result of getLCP, null if stale
 
     public DynamicLCPTrie() {
         root = new TrieNode();
-        lcp = "";
+        lcpNode = root;
+        lcpString = "";
     }
 
     public void insert(String word) {
         if (word == null || word.isEmpty()) return;
 
-        TrieNode currentNode = root;
-        StringBuilder currentLCP = new StringBuilder();
+        boolean wasEmpty = root.count == 0;
+        // The new LCP is the part of the current one that the word shares.
+        int common = 0;
+        int limit = Math.min(lcp.length(), word.length());
+        while (common < limit && lcp.charAt(common) == word.charAt(common)) common++;
 
+        TrieNode currentNode = root;
+        currentNode.count++;
+        TrieNode commonNode = root;
         for (int i = 0; i < word.length(); i++) {
-            char c = word.charAt(i);
-            int index = c - 'a';
+            int index = word.charAt(i) - 'a';
 
             if (currentNode.children[index] == null) {
                 currentNode.children[index] = new TrieNode();
+                currentNode.liveChildren++;
             }
 
             currentNode = currentNode.children[index];
+            currentNode.count++;
+            if (i + 1 == common) commonNode = currentNode;
+        }
+
+        currentNode.isEndOfWord = true;
+        currentNode.endCount++;
+
+        if (wasEmpty) {
+            lcp.setLength(0);
+            lcpNode = root;
+            mayExtend = true;
+        } else if (common < lcp.length()) {
+            lcp.setLength(common);
+            lcpNode = commonNode;
+            lcpString = null;
+        }
+    }
+
+    /**
+     * Removes one occurrence of word.
+     * @return false if the word was not in the trie
+     */
+    public boolean delete(String word) {
+        if (word == null || word.isEmpty()) return false;
 
-            // Update LCP only if current character matches LCP so far
-            if (lcp.isEmpty() || (i < lcp.length() && lcp.charAt(i) == c)) {
-                currentLCP.append(c);
-            } else {
+        TrieNode currentNode = root;
+        for (int i = 0; i < word.length() && currentNode != null; i++) {
+            currentNode = currentNode.children[word.charAt(i) - 'a'];
+        }
+        if (currentNode == null || currentNode.endCount == 0) return false;
+
+        currentNode = root;
+        currentNode.count--;
+        for (int i = 0; i < word.length(); i++) {
+            int index = word.charAt(i) - 'a';
+            TrieNode child = currentNode.children[index];
+            if (--child.count == 0) { // nothing else passes through here: drop the whole branch
+                currentNode.children[index] = null;
+                currentNode.liveChildren--;
+                currentNode = null;
                 break;
             }
+            currentNode = child;
+        }
+        if (currentNode != null && --currentNode.endCount == 0) {
+            currentNode.isEndOfWord = false;
         }
 
-        currentNode.isEndOfWord = true;
-
-        // Set the LCP to the current valid prefix
-        lcp = currentLCP.toString();
+        if (root.count == 0) { // empty again; the LCP is ""
+            lcp.setLength(0);
+            lcpNode = root;
+            lcpString = "";
+            mayExtend = false;
+        } else {
+            mayExtend = true;
+        }
+        return true;
     }
 
     public String getLCP() {
-        return lcp;
+        if (mayExtend) {
+            mayExtend = false;
+            TrieNode node = lcpNode;
+            int before = lcp.length();
+            while (node.count > 0 && node.endCount == 0 && node.liveChildren == 1) {
+                int index = 0;
+                while (node.children[index] == null) index++;
+                lcp.append((char) ('a' + index));
+                node = node.children[index];
+            }
+            lcpNode = node;
+            if (lcp.length() != before) lcpString = null;
+        }
+        if (lcpString == null) lcpString = lcp.toString();
+        return lcpString;
+    }
+
+    /* Number of words, with multiplicity. */
+    public int size() {
+        return root.count;
+    }
+
+    /* The LCP computed from scratch by walking down from the root, as a baseline for the benchmark. */
+    String recomputeLCP() {
+        StringBuilder prefix = new StringBuilder();
+        TrieNode node = root;
+        while (node.count > 0 && node.endCount == 0 && node.liveChildren == 1) {
+            int index = 0;
+            while (node.children[index] == null) index++;
+            prefix.append((char) ('a' + index));
+            node = node.children[index];
+        }
+        return prefix.toString();
     }
 
     public static void main(String[] args) {
@@ -60,5 +163,13 @@ public class DynamicLCPTrie {
 
         trie.insert("flight");
         System.out.println(trie.getLCP());
+
+        trie.delete("fly");
+        trie.delete("flight");
+        System.out.println(trie.getLCP()); // back to "flower"
+
+        trie.insert("flowering");
+        trie.insert("flowerbed");
+        System.out.println(trie.getLCP());
     }
 }
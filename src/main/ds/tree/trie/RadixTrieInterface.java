@@ -1,16 +1,28 @@
 package main.ds.tree.trie;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
 /*
     Non-compact trie, also known as a standard trie or radix trie, provides a flexible
     and efficient solution for various trie-based operations, such as searching for words,
     prefix matching, autocomplete suggestions, and more. It allows for efficient insertion,
     deletion, and searching of strings. Non-compact tries are commonly used in text processing,
     spell checkers, keyword matching and other applications where efficient string matching and retrieval are important.
+
+    For autocomplete every word can carry a score (e.g. its query count), and every node caches the highest score
+    in its subtree, so topK(prefix, k) can rank completions without enumerating the whole subtree.
 */
 public class RadixTrieInterface {
     private static final int SIZE = 26;
     private final RadixTrieInterface[] children;
     private boolean isEndOfWord;
+    private long score;                     // score of the word ending here, if isEndOfWord
+    private long maxScore = Long.MIN_VALUE; // highest score of any word in this subtree
 
     public RadixTrieInterface() {
         children = new RadixTrieInterface[SIZE];
@@ -19,17 +31,53 @@ public class RadixTrieInterface {
 
     /*
      * The time & space complexity of inserting a word into the trie is O(L)
+     * A word inserted without a score gets score 0; inserting an existing word keeps its score.
      */
     public void insert(String word){
+        if (!search(word)) {
+            insert(word, 0);
+        }
+    }
+
+    /**
+     * Inserts word with the given score, replacing the score if the word is already present, and refreshes
+     * the cached subtree maximum of every node on the path.
+     * @Time-Complexity O(L) when the score does not decrease; O(L * SIZE) when it does, since each node on
+     * the path then recomputes its maximum from its children.
+     * @Space-Complexity O(L) for the new nodes and the path.
+     */
+    public void insert(String word, long score) {
+        RadixTrieInterface[] path = new RadixTrieInterface[word.length() + 1];
         RadixTrieInterface current = this;
-        for(char character : word.toCharArray()){
-            int index = character - 'a';
+        path[0] = current;
+        for (int i = 0; i < word.length(); i++) {
+            int index = word.charAt(i) - 'a';
             if (current.children[index] == null) {
                 current.children[index] = new RadixTrieInterface();
             }
             current = current.children[index];
+            path[i + 1] = current;
         }
+        boolean decreased = current.isEndOfWord && score < current.score;
         current.isEndOfWord = true;
+        current.score = score;
+        for (int i = path.length - 1; i >= 0; i--) {
+            RadixTrieInterface node = path[i];
+            if (!decreased) {
+                if (node.maxScore >= score) break; // ancestors are at least as high already
+                node.maxScore = score;
+            } else {
+                node.maxScore = node.recomputeMaxScore();
+            }
+        }
+    }
+
+    private long recomputeMaxScore() {
+        long max = isEndOfWord ? score : Long.MIN_VALUE;
+        for (RadixTrieInterface child : children) {
+            if (child != null && child.maxScore > max) max = child.maxScore;
+        }
+        return max;
     }
 
     /**
@@ -152,6 +200,80 @@ public class RadixTrieInterface {
         System.out.println("Longest Common Prefix: " + lcp);
     }
 
+    /* A word or subtree waiting in the best-first queue; the string is only built for returned words. */
+    private static final class Candidate {
+        final RadixTrieInterface node;
+        final Candidate parent;
+        final char character;
+        final long priority;
+        final boolean complete; // true: the word ending at node; false: the whole subtree of node
+
+        Candidate(RadixTrieInterface node, Candidate parent, char character, long priority, boolean complete) {
+            this.node = node;
+            this.parent = parent;
+            this.character = character;
+            this.priority = priority;
+            this.complete = complete;
+        }
+
+        String word(String prefix) {
+            StringBuilder suffix = new StringBuilder();
+            for (Candidate c = this; c.parent != null; c = c.parent) suffix.append(c.character);
+            return prefix + suffix.reverse();
+        }
+    }
+
+    /**
+     * Returns up to k words starting with prefix, highest score first.
+     * Best-first search: the queue holds subtrees keyed by their cached maximum and finished words keyed by
+     * their score. A subtree can never beat its maximum, so when a word reaches the head of the queue no
+     * remaining candidate scores higher, and the search stops after k words.
+     * @Time-Complexity O(P + k * D * SIZE * log Q) where D is the depth below the prefix and Q the queue size:
+     * it depends on k, not on how many words share the prefix.
+     * @Space-Complexity O(k * D * SIZE) for the queue.
+     */
+    public List<String> topK(String prefix, int k) {
+        List<String> result = new ArrayList<>(k);
+        RadixTrieInterface node = this;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children[prefix.charAt(i) - 'a'];
+        }
+        if (node == null || node.maxScore == Long.MIN_VALUE || k <= 0) {
+            return result;
+        }
+        // Highest priority first; on ties a finished word comes out before a subtree.
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(
+                Comparator.comparingLong((Candidate c) -> c.priority).reversed()
+                        .thenComparing(c -> !c.complete));
+        queue.add(new Candidate(node, null, '\0', node.maxScore, false));
+        while (!queue.isEmpty() && result.size() < k) {
+            Candidate candidate = queue.poll();
+            if (candidate.complete) {
+                result.add(candidate.word(prefix));
+                continue;
+            }
+            RadixTrieInterface current = candidate.node;
+            if (current.isEndOfWord) {
+                queue.add(new Candidate(current, candidate.parent, candidate.character, current.score, true));
+            }
+            for (int i = 0; i < SIZE; i++) {
+                RadixTrieInterface child = current.children[i];
+                if (child != null && child.maxScore != Long.MIN_VALUE) {
+                    queue.add(new Candidate(child, candidate, (char) ('a' + i), child.maxScore, false));
+                }
+            }
+        }
+        return result;
+    }
+
+    public long score(String word) {
+        RadixTrieInterface current = this;
+        for (int i = 0; i < word.length() && current != null; i++) {
+            current = current.children[word.charAt(i) - 'a'];
+        }
+        return current != null && current.isEndOfWord ? current.score : Long.MIN_VALUE;
+    }
+
     private int countChildren(RadixTrieInterface node) {
         int count = 0;
         for (int i = 0; i < SIZE; i++) {
@@ -161,4 +283,118 @@ public class RadixTrieInterface {
         }
         return count;
     }
+
+    // === topK latency against enumerate-and-sort on a Zipfian query log ===
+
+    private static void collect(RadixTrieInterface node, StringBuilder word, List<String> words, List<Long> scores) {
+        if (node.isEndOfWord) {
+            words.add(word.toString());
+            scores.add(node.score);
+        }
+        for (int i = 0; i < SIZE; i++) {
+            if (node.children[i] != null) {
+                word.append((char) ('a' + i));
+                collect(node.children[i], word, words, scores);
+                word.setLength(word.length() - 1);
+            }
+        }
+    }
+
+    /* Baseline: enumerate every completion, then sort by score. Returns the top k scores. */
+    private long[] topKByEnumeration(String prefix, int k) {
+        RadixTrieInterface node = this;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children[prefix.charAt(i) - 'a'];
+        }
+        if (node == null) return new long[0];
+        List<String> words = new ArrayList<>();
+        List<Long> scores = new ArrayList<>();
+        collect(node, new StringBuilder(prefix), words, scores);
+        return scores.stream().sorted(Comparator.reverseOrder()).limit(k).mapToLong(Long::longValue).toArray();
+    }
+
+    /* Index into [0, n) with probability proportional to 1 / (rank + 1)^skew. */
+    private static int[] zipf(int n, double skew, int samples, Random random) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) cumulative[i] = sum += 1 / Math.pow(i + 1, skew);
+        int[] draws = new int[samples];
+        for (int s = 0; s < samples; s++) {
+            double u = random.nextDouble() * sum;
+            int lo = 0, hi = n - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] < u) lo = mid + 1; else hi = mid;
+            }
+            draws[s] = lo;
+        }
+        return draws;
+    }
+
+    private static String percentiles(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0);
+        return String.format("mean %8.1f us, p50 %8.1f us, p99 %8.1f us", mean / 1e3,
+                sorted[sorted.length / 2] / 1e3, sorted[sorted.length * 99 / 100] / 1e3);
+    }
+
+    public static void main(String[] args) {
+        RadixTrieInterface demo = new RadixTrieInterface();
+        demo.insert("car", 40);
+        demo.insert("cart", 90);
+        demo.insert("care", 70);
+        demo.insert("cat", 10);
+        demo.insert("dog", 100);
+        System.out.println("topK(\"ca\", 3) = " + demo.topK("ca", 3));
+        demo.insert("cart", 5); // lowering a score refreshes the cached maxima
+        System.out.println("after lowering cart: topK(\"ca\", 3) = " + demo.topK("ca", 3));
+
+        int vocabulary = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        Random random = new Random(11);
+        String[] syllables = {"ka", "lo", "mi", "re", "su", "ta", "ne", "po", "vi", "da", "el", "or", "an", "is",
+                "un", "str", "ch", "th", "qu", "ing", "er", "ly", "ed", "s"};
+        String[] words = new String[vocabulary];
+        for (int i = 0; i < vocabulary; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int syllable = 1 + random.nextInt(5); syllable > 0; syllable--) {
+                word.append(syllables[random.nextInt(syllables.length)]);
+            }
+            words[i] = word.toString();
+        }
+        // Scores are the words' counts in a Zipfian log of 5M queries.
+        long[] counts = new long[vocabulary];
+        for (int rank : zipf(vocabulary, 1.0, 5_000_000, random)) counts[rank]++;
+        RadixTrieInterface trie = new RadixTrieInterface();
+        for (int i = 0; i < vocabulary; i++) trie.insert(words[i], Math.max(counts[i], trie.score(words[i])));
+
+        // Autocomplete queries: 1-3 character prefixes of words drawn from the same Zipfian log.
+        int queries = 2_000, k = 10;
+        String[] prefixes = new String[queries];
+        int[] draws = zipf(vocabulary, 1.0, queries, random);
+        for (int q = 0; q < queries; q++) {
+            String word = words[draws[q]];
+            prefixes[q] = word.substring(0, Math.min(word.length(), 1 + random.nextInt(3)));
+        }
+
+        long[] topKNanos = new long[queries], enumerateNanos = new long[queries];
+        for (int round = 0; round < 2; round++) { // first round warms up
+            for (int q = 0; q < queries; q++) {
+                long start = System.nanoTime();
+                List<String> top = trie.topK(prefixes[q], k);
+                topKNanos[q] = System.nanoTime() - start;
+                start = System.nanoTime();
+                long[] expected = trie.topKByEnumeration(prefixes[q], k);
+                enumerateNanos[q] = System.nanoTime() - start;
+                long[] actual = top.stream().mapToLong(trie::score).toArray();
+                if (!Arrays.equals(actual, expected)) {
+                    throw new AssertionError("topK(" + prefixes[q] + ") scores " + Arrays.toString(actual)
+                            + " != " + Arrays.toString(expected));
+                }
+            }
+        }
+        System.out.printf("%n%d words, %d Zipfian prefix queries (1-3 chars), k = %d%n", vocabulary, queries, k);
+        System.out.println("topK (best-first)      : " + percentiles(topKNanos));
+        System.out.println("enumerate + sort       : " + percentiles(enumerateNanos));
+    }
 }
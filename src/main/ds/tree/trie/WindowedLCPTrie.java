@@ -0,0 +1,178 @@
+package main.ds.tree.trie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ *  DynamicLCPTrie over a sliding window: only the last N inserted keys are live. Inserting the (N + 1)-th key
+ *  deletes the oldest one, e.g. for the common prefix of the currently active session keys.
+ *  The window is a ring buffer of the live keys, so expiring a key costs one delete.
+ *  delete() removes the oldest live occurrence of a key early and leaves a tombstone (null) in its ring slot, so
+ *  the slot expires without deleting anything and later copies of the same key keep their own slots.
+ *  -
+ *  Time Complexity  : insert O(L + L_expired); delete O(N + L) for the slot scan; getLCP O(1) amortized.
+ *  Space Complexity : O(N) keys plus the trie over them.
+ */
+public class WindowedLCPTrie extends DynamicLCPTrie {
+    private final String[] window; // null slots are free or tombstones of deleted keys
+    private int next;     // ring slot the next key goes to
+    private int occupied; // slots used so far, tombstones included
+
+    public WindowedLCPTrie(int windowSize) {
+        if (windowSize <= 0) throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        window = new String[windowSize];
+    }
+
+    @Override
+    public void insert(String word) {
+        if (word == null || word.isEmpty()) return;
+        if (occupied == window.length) {
+            if (window[next] != null) super.delete(window[next]);
+        } else {
+            occupied++;
+        }
+        window[next] = word;
+        next = (next + 1) % window.length;
+        super.insert(word);
+    }
+
+    /* Removes the oldest live occurrence of word from the window before it expires. */
+    @Override
+    public boolean delete(String word) {
+        if (!super.delete(word)) return false;
+        int oldest = occupied == window.length ? next : 0;
+        for (int i = 0; i < occupied; i++) {
+            int slot = (oldest + i) % window.length;
+            if (word.equals(window[slot])) {
+                window[slot] = null;
+                break;
+            }
+        }
+        return true;
+    }
+
+    public int windowSize() {
+        return window.length;
+    }
+
+    // === Benchmark: session-key stream, LCP read after every event ===
+
+    /*
+     * Lowercase session keys "sess" + region + 10 random letters. Regions drift in phases, so the window's LCP
+     * alternates between "sess" and "sess" + region, and each phase boundary has to be noticed in both directions.
+     */
+    private static String[] sessionKeys(int count, Random random) {
+        String[] regions = {"euwest", "eunorth", "uswest", "useast", "apsouth"};
+        String[] keys = new String[count];
+        char[] chars = new char[24];
+        for (int i = 0; i < count; i++) {
+            int phase = i / 200_000;
+            String region = phase % 2 == 0 ? regions[phase / 2 % regions.length] // one region only
+                    : regions[random.nextInt(regions.length)];                    // all regions mixed
+            int length = 0;
+            for (char c : "sess".toCharArray()) chars[length++] = c;
+            for (int j = 0; j < region.length(); j++) chars[length++] = region.charAt(j);
+            for (int j = 0; j < 10; j++) chars[length++] = (char) ('a' + random.nextInt(26));
+            keys[i] = new String(chars, 0, length);
+        }
+        return keys;
+    }
+
+    public static void main(String[] args) {
+        WindowedLCPTrie demo = new WindowedLCPTrie(3);
+        for (String key : new String[]{"flower", "flow", "flight", "flowchart", "flowing", "flowers"}) {
+            demo.insert(key);
+            System.out.println("insert " + key + " -> LCP of the last 3: \"" + demo.getLCP() + "\"");
+        }
+
+        // Correctness against a brute-force LCP of the window contents, with one event in ten an early delete.
+        Random random = new Random(21);
+        WindowedLCPTrie checked = new WindowedLCPTrie(50);
+        List<String> live = new ArrayList<>(); // window slots, oldest first; null = deleted early
+        for (int i = 0; i < 200_000; i++) {
+            int length = 1 + random.nextInt(6);
+            StringBuilder key = new StringBuilder(i / 20_000 % 2 == 0 ? "ab" : "");
+            for (int j = 0; j < length; j++) key.append((char) ('a' + random.nextInt(3)));
+            if (random.nextInt(10) == 0) {
+                String victim = live.isEmpty() ? key.toString() : live.get(random.nextInt(live.size()));
+                boolean present = victim != null && live.contains(victim);
+                if (victim != null && checked.delete(victim) != present) {
+                    throw new AssertionError("event " + i + ": delete(" + victim + ") returned " + !present);
+                }
+                if (present) live.set(live.indexOf(victim), null);
+            } else {
+                checked.insert(key.toString());
+                live.add(key.toString());
+                if (live.size() > 50) live.remove(0);
+            }
+            String expected = null;
+            for (String word : live) {
+                if (word == null) continue;
+                if (expected == null) expected = word;
+                int common = 0;
+                while (common < Math.min(expected.length(), word.length()) && expected.charAt(common) == word.charAt(common)) common++;
+                expected = expected.substring(0, common);
+            }
+            if (expected == null) expected = "";
+            if (!expected.equals(checked.getLCP())) {
+                throw new AssertionError("event " + i + ": LCP " + checked.getLCP() + ", expected " + expected);
+            }
+        }
+        System.out.println("correctness: 200000 events (10% early deletes), LCP matches brute force after every event");
+
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int windowSize = 100_000;
+        String[] keys = sessionKeys(events, new Random(5));
+
+        for (int round = 0; round < 2; round++) { // round 0 warms up on the first 10% of the stream
+            int count = round == 0 ? events / 10 : events;
+            WindowedLCPTrie trie = new WindowedLCPTrie(windowSize);
+            long lcpLengths = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                trie.insert(keys[i]);
+                lcpLengths += trie.getLCP().length();
+            }
+            long incrementalNanos = System.nanoTime() - start;
+
+            // Same window, LCP recomputed from the root after every event.
+            WindowedLCPTrie baseline = new WindowedLCPTrie(windowSize);
+            long baselineLengths = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                baseline.insert(keys[i]);
+                baselineLengths += baseline.recomputeLCP().length();
+            }
+            long recomputeNanos = System.nanoTime() - start;
+            if (lcpLengths != baselineLengths) throw new AssertionError("LCP lengths differ");
+
+            // Without a trie: LCP of the window's keys compared one by one, sampled at 1000 events.
+            int samples = 1000;
+            start = System.nanoTime();
+            for (int s = 0; s < samples; s++) {
+                int end = windowSize + (int) ((long) s * (count - windowSize) / samples);
+                String prefix = keys[end - windowSize];
+                for (int k = end - windowSize + 1; k < end; k++) {
+                    int common = 0;
+                    int limit = Math.min(prefix.length(), keys[k].length());
+                    while (common < limit && prefix.charAt(common) == keys[k].charAt(common)) common++;
+                    if (common < prefix.length()) prefix = prefix.substring(0, common);
+                }
+                lcpLengths += prefix.length();
+            }
+            long bruteForceNanos = System.nanoTime() - start;
+
+            if (round == 1) {
+                System.out.printf("%n%d events, window %d, LCP read after every event (mean LCP length %.1f)%n",
+                        events, windowSize, (double) baselineLengths / events);
+                System.out.printf("%-34s %9.0f ns/event, %6.2f M events/s%n", "incremental LCP",
+                        (double) incrementalNanos / events, events / (incrementalNanos / 1e3));
+                System.out.printf("%-34s %9.0f ns/event, %6.2f M events/s%n", "LCP recomputed from the root",
+                        (double) recomputeNanos / events, events / (recomputeNanos / 1e3));
+                System.out.printf("%-34s %9.0f ns/event (LCP only, sampled)%n", "brute force over the window",
+                        (double) bruteForceNanos / samples);
+            }
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package main.ds.tree.trie.massive.dataset;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 /**
  * A Compressed / Patricia Trie is a more memory-efficient version of a standard Trie,
@@ -71,6 +75,117 @@ public class CompressedTrie {
         node.isEndOfWord = true;
     }
 
+    /**
+     * Exact-match lookup: the child for the next character must match its whole part, and the word must end on a
+     * node that is marked as the end of a word (not merely pass through it).
+     */
+    boolean contains(String word) {
+        TrieNode node = root;
+        int i = 0;
+        while (i < word.length()) {
+            TrieNode child = node.children.get(word.charAt(i));
+            if (child == null || !word.startsWith(child.part, i)) {
+                return false;
+            }
+            i += child.part.length();
+            node = child;
+        }
+        return node.isEndOfWord;
+    }
+
+    /**
+     * Typo-tolerant lookup: all words within maxEdits insertions, deletions or substitutions of query
+     * (Levenshtein distance), in no particular order.
+     * The trie is walked depth-first carrying one row of the edit-distance table per character of the path, so a
+     * row is computed once for all words below it. A subtree is skipped as soon as the smallest value in the row
+     * exceeds maxEdits, since a longer path can never bring it back down. Only the cells within maxEdits of the
+     * diagonal can be that small, so each row costs O(maxEdits) instead of O(query length).
+     */
+    List<String> fuzzySearch(String query, int maxEdits) {
+        FuzzySearch search = new FuzzySearch(query, maxEdits);
+        int[] first = search.row(0);
+        for (int j = 0; j <= query.length(); j++) first[j] = Math.min(j, maxEdits + 1);
+        if (root.isEndOfWord && query.length() <= maxEdits) search.results.add("");
+        for (TrieNode child : root.children.values()) {
+            search.visit(child);
+        }
+        return search.results;
+    }
+
+    private static final class FuzzySearch {
+        final String query;
+        final int maxEdits;
+        final List<String> results = new ArrayList<>();
+        final StringBuilder path = new StringBuilder();
+        int[][] rows = new int[16][]; // rows[i]: distances between the path's first i chars and query prefixes
+
+        FuzzySearch(String query, int maxEdits) {
+            this.query = query;
+            this.maxEdits = maxEdits;
+        }
+
+        /* Rows are reused by depth: a depth-first walk is done with a row before it revisits that depth. */
+        int[] row(int depth) {
+            if (depth == rows.length) rows = Arrays.copyOf(rows, depth * 2);
+            if (rows[depth] == null) rows[depth] = new int[query.length() + 2];
+            return rows[depth];
+        }
+
+        void visit(TrieNode node) {
+            int start = path.length();
+            int m = query.length();
+            int limit = maxEdits + 1; // every value above maxEdits is stored as limit
+            for (int k = 0; k < node.part.length(); k++) {
+                char c = node.part.charAt(k);
+                path.append(c);
+                int i = path.length();
+                int[] previous = rows[i - 1];
+                int[] current = row(i);
+                int lo = Math.max(0, i - maxEdits), hi = Math.min(m, i + maxEdits);
+                if (lo > hi) { // the path is more than maxEdits longer than the query
+                    path.setLength(start);
+                    return;
+                }
+                int min = limit;
+                int j = lo;
+                if (lo == 0) {
+                    current[0] = i;
+                    min = i;
+                    j = 1;
+                } else {
+                    current[lo - 1] = limit; // left of the band
+                }
+                for (; j <= hi; j++) {
+                    int cost = query.charAt(j - 1) == c ? 0 : 1;
+                    int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                    current[j] = Math.min(value, limit);
+                    if (current[j] < min) min = current[j];
+                }
+                current[hi + 1] = limit; // right of the band, read by the next row
+                if (min > maxEdits) {
+                    path.setLength(start);
+                    return;
+                }
+            }
+            int depth = path.length();
+            if (node.isEndOfWord && depth >= m - maxEdits && rows[depth][m] <= maxEdits) {
+                results.add(path.toString());
+            }
+            for (TrieNode child : node.children.values()) {
+                visit(child);
+            }
+            path.setLength(start);
+        }
+    }
+
+    /**
+     * Converts the trie into a read-only succinct LOUDS form (see FrozenCompressedTrie). The trie itself is
+     * left unchanged and may be dropped afterwards; later inserts are not reflected in the frozen copy.
+     */
+    FrozenCompressedTrie freeze() {
+        return FrozenCompressedTrie.from(this);
+    }
+
     /**
      * Finds the length of the common prefix between the word being inserted
      * and the part stored in the child node.
@@ -151,5 +266,78 @@ public class CompressedTrie {
 
         String lcp = trie.findLongestCommonPrefix();
         System.out.println("Longest Common Prefix: " + lcp);  // Output: "fl"
+
+        System.out.println("fuzzySearch(\"flowr\", 1): " + trie.fuzzySearch("flowr", 1));
+        System.out.println("fuzzySearch(\"flihgt\", 2): " + trie.fuzzySearch("flihgt", 2));
+
+        // Queries per second on a 1M-word trie against computing the distance to every word.
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<String> words = ConcurrentCompressedTrie.syllableWords(n, 42);
+        CompressedTrie dictionary = new CompressedTrie();
+        for (String word : words) dictionary.insert(word);
+        String[] distinct = words.stream().distinct().toArray(String[]::new);
+
+        Random random = new Random(9);
+        String[] queries = new String[2000];
+        for (int q = 0; q < queries.length; q++) {
+            char[] word = words.get(random.nextInt(n)).toCharArray();
+            StringBuilder typo = new StringBuilder(new String(word));
+            for (int edit = 1 + random.nextInt(2); edit > 0 && typo.length() > 1; edit--) {
+                int at = random.nextInt(typo.length());
+                switch (random.nextInt(3)) {
+                    case 0: typo.setCharAt(at, (char) ('a' + random.nextInt(26))); break;
+                    case 1: typo.deleteCharAt(at); break;
+                    default: typo.insert(at, (char) ('a' + random.nextInt(26)));
+                }
+            }
+            queries[q] = typo.toString();
+        }
+
+        System.out.printf("%n%d words (%d distinct), %d misspelled queries%n", n, distinct.length, queries.length);
+        for (int maxEdits = 1; maxEdits <= 2; maxEdits++) {
+            long matches = 0;
+            long start = System.nanoTime();
+            for (int round = 0; round < 2; round++) { // the first round warms up
+                if (round == 1) start = System.nanoTime();
+                for (String query : queries) matches += dictionary.fuzzySearch(query, maxEdits).size();
+            }
+            double trieQps = queries.length / ((System.nanoTime() - start) / 1e9);
+
+            int bruteForceQueries = 20;
+            start = System.nanoTime();
+            for (int q = 0; q < bruteForceQueries; q++) {
+                List<String> expected = new ArrayList<>();
+                for (String word : distinct) {
+                    if (levenshtein(queries[q], word) <= maxEdits) expected.add(word);
+                }
+                List<String> actual = dictionary.fuzzySearch(queries[q], maxEdits);
+                expected.sort(null);
+                actual.sort(null);
+                if (!expected.equals(actual)) {
+                    throw new AssertionError("fuzzySearch(" + queries[q] + ", " + maxEdits + ") = " + actual
+                            + ", expected " + expected);
+                }
+            }
+            double bruteForceQps = bruteForceQueries / ((System.nanoTime() - start) / 1e9);
+            System.out.printf("d = %d: trie %8.0f queries/s (%.1f matches/query), brute force %6.1f queries/s%n",
+                    maxEdits, trieQps, matches / (2.0 * queries.length), bruteForceQps);
+        }
+    }
+
+    /* Plain O(|a| * |b|) edit distance, the brute-force baseline. */
+    static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1], current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
     }
 }
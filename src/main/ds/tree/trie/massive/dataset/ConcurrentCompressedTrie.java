@@ -0,0 +1,378 @@
+package main.ds.tree.trie.massive.dataset;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A compressed (radix) trie that many threads can insert into at once without locks.
+ * <p>
+ * CompressedTrie mutates a HashMap of children and splits nodes in place, so two threads inserting into
+ * the same trie corrupt it. Here the part on an edge never changes after creation. Everything that does
+ * change sits in a separate Body:
+ * <pre>
+ *      TrieNode : final part, final body       (immutable edge)
+ *      Body     : volatile isEndOfWord, volatile children   (shared, mutable state)
+ *      Children : sorted char[] labels + TrieNode[] nodes  (immutable snapshot, replaced by CAS)
+ * </pre>
+ * Adding a child installs a copy of the children snapshot with one CAS on the body. A split builds the
+ * replacement off to the side and installs it the same way. The replacement is a new middle node with the
+ * common prefix, plus a lower node with the rest of the old part. The lower node reuses the old node's body,
+ * so an insert that still goes through the old node lands in the same place. If a CAS fails, the insert
+ * re-reads that one node's children and tries again. It never restarts from the root.
+ *
+ * @Optimizations:
+ * @Non-blocking-Readers: contains / startsWith / forEachWord only read volatile fields and immutable snapshots.
+ * @Disjoint-Scaling: inserts under different children never touch the same body, so they never compete for a
+ * CAS. Threads only contend where their words share a node.
+ * @Copy-On-Write-Children: a snapshot is copied only when a child is added or split. That happens once per
+ * new branch, not once per insert.
+ */
+public class ConcurrentCompressedTrie {
+    private static final VarHandle CHILDREN;
+
+    static {
+        try {
+            CHILDREN = MethodHandles.lookup().findVarHandle(Body.class, "children", Children.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static final class TrieNode {
+        final String part;
+        final Body body;
+
+        TrieNode(String part, Body body) {
+            this.part = part;
+            this.body = body;
+        }
+    }
+
+    static final class Body {
+        volatile boolean isEndOfWord;
+        volatile Children children;
+
+        Body(boolean isEndOfWord, Children children) {
+            this.isEndOfWord = isEndOfWord;
+            this.children = children;
+        }
+    }
+
+    static final class Children {
+        static final Children NONE = new Children(new char[0], new TrieNode[0]);
+
+        final char[] labels; // first character of each child's part, ascending
+        final TrieNode[] nodes;
+
+        Children(char[] labels, TrieNode[] nodes) {
+            this.labels = labels;
+            this.nodes = nodes;
+        }
+
+        int indexOf(char label) {
+            if (labels.length <= 8) {
+                for (int i = 0; i < labels.length; i++) {
+                    if (labels[i] == label) return i;
+                }
+                return -1;
+            }
+            int at = Arrays.binarySearch(labels, label);
+            return at >= 0 ? at : -1;
+        }
+
+        TrieNode get(char label) {
+            int at = indexOf(label);
+            return at < 0 ? null : nodes[at];
+        }
+
+        /* Copy with a new child; label must be absent. */
+        Children with(char label, TrieNode node) {
+            int at = -Arrays.binarySearch(labels, label) - 1;
+            char[] newLabels = new char[labels.length + 1];
+            TrieNode[] newNodes = new TrieNode[nodes.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, at);
+            System.arraycopy(nodes, 0, newNodes, 0, at);
+            newLabels[at] = label;
+            newNodes[at] = node;
+            System.arraycopy(labels, at, newLabels, at + 1, labels.length - at);
+            System.arraycopy(nodes, at, newNodes, at + 1, nodes.length - at);
+            return new Children(newLabels, newNodes);
+        }
+
+        /* Copy with the child at index replaced by one with the same first character. */
+        Children replace(int at, TrieNode node) {
+            TrieNode[] newNodes = nodes.clone();
+            newNodes[at] = node;
+            return new Children(labels, newNodes); // labels are unchanged and immutable: share them
+        }
+
+        static Children of(TrieNode a) {
+            return new Children(new char[]{a.part.charAt(0)}, new TrieNode[]{a});
+        }
+
+        static Children of(TrieNode a, TrieNode b) {
+            return a.part.charAt(0) < b.part.charAt(0)
+                    ? new Children(new char[]{a.part.charAt(0), b.part.charAt(0)}, new TrieNode[]{a, b})
+                    : new Children(new char[]{b.part.charAt(0), a.part.charAt(0)}, new TrieNode[]{b, a});
+        }
+    }
+
+    private final TrieNode root = new TrieNode("", new Body(false, Children.NONE));
+
+    private static boolean casChildren(Body body, Children expected, Children update) {
+        return CHILDREN.compareAndSet(body, expected, update);
+    }
+
+    /**
+     * Inserts a word; safe to call from any number of threads. Each CAS failure retries at the node where it
+     * happened, after re-reading its children.
+     */
+    public void insert(String word) {
+        TrieNode node = root;
+        int i = 0;
+        while (i < word.length()) {
+            Body body = node.body;
+            Children children = body.children;
+            char currentChar = word.charAt(i);
+            int at = children.indexOf(currentChar);
+
+            if (at < 0) {
+                TrieNode leaf = new TrieNode(word.substring(i), new Body(true, Children.NONE));
+                if (casChildren(body, children, children.with(currentChar, leaf))) {
+                    return;
+                }
+                continue; // another thread changed this node's children: look again
+            }
+
+            TrieNode child = children.nodes[at];
+            int commonPrefixLength = findCommonPrefixLength(word, i, child.part);
+            if (commonPrefixLength == child.part.length()) {
+                node = child;
+                i += commonPrefixLength;
+                continue;
+            }
+
+            // Partial match: replace child by prefix -> (rest of child, rest of word), built off to the side.
+            TrieNode lower = new TrieNode(child.part.substring(commonPrefixLength), child.body);
+            String remainingWordPart = word.substring(i + commonPrefixLength);
+            Body middleBody = remainingWordPart.isEmpty()
+                    ? new Body(true, Children.of(lower))
+                    : new Body(false, Children.of(lower, new TrieNode(remainingWordPart, new Body(true, Children.NONE))));
+            TrieNode middle = new TrieNode(child.part.substring(0, commonPrefixLength), middleBody);
+            if (casChildren(body, children, children.replace(at, middle))) {
+                return;
+            }
+        }
+        node.body.isEndOfWord = true; // idempotent, no CAS needed
+    }
+
+    private static int findCommonPrefixLength(String word, int startIndex, String childPart) {
+        int j = 0;
+        while (j < childPart.length() && startIndex + j < word.length()
+                && word.charAt(startIndex + j) == childPart.charAt(j)) {
+            j++;
+        }
+        return j;
+    }
+
+    public boolean contains(String word) {
+        TrieNode node = root;
+        int i = 0;
+        while (i < word.length()) {
+            TrieNode child = node.body.children.get(word.charAt(i));
+            if (child == null || !word.startsWith(child.part, i)) {
+                return false;
+            }
+            i += child.part.length();
+            node = child;
+        }
+        return node.body.isEndOfWord;
+    }
+
+    public boolean startsWith(String prefix) {
+        TrieNode node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            TrieNode child = node.body.children.get(prefix.charAt(i));
+            if (child == null) {
+                return false;
+            }
+            int common = findCommonPrefixLength(prefix, i, child.part);
+            if (i + common == prefix.length()) {
+                return true; // prefix ends inside (or at the end of) this edge
+            }
+            if (common < child.part.length()) {
+                return false;
+            }
+            i += common;
+            node = child;
+        }
+        return true;
+    }
+
+    /**
+     * Visits every word in lexicographic (char) order. Under concurrent inserts this sees a mix of
+     * before and after states, like the iterators of java.util.concurrent.
+     */
+    public void forEachWord(Consumer<String> action) {
+        forEachWord(root, new StringBuilder(), action);
+    }
+
+    private void forEachWord(TrieNode node, StringBuilder prefix, Consumer<String> action) {
+        int length = prefix.length();
+        prefix.append(node.part);
+        if (node.body.isEndOfWord) {
+            action.accept(prefix.toString());
+        }
+        for (TrieNode child : node.body.children.nodes) {
+            forEachWord(child, prefix, action);
+        }
+        prefix.setLength(length);
+    }
+
+    // === Stress test against the sequential CompressedTrie, and insert scaling ===
+
+    private static final String[] SYLLABLES = {"a", "an", "ar", "be", "ber", "co", "con", "de", "di", "en", "er", "in",
+            "ing", "is", "la", "le", "lo", "ma", "me", "ne", "o", "or", "pa", "pre", "re", "ri", "ro", "sa", "se",
+            "si", "st", "ta", "te", "ti", "to", "tr", "un", "ur", "va", "ve"};
+
+    /* Pseudo-words built from common syllables: lots of shared prefixes, so lots of splits. */
+    static List<String> syllableWords(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> words = new ArrayList<>(count);
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            word.setLength(0);
+            int syllables = 1 + random.nextInt(5);
+            for (int s = 0; s < syllables; s++) word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            if (random.nextInt(4) == 0) word.append((char) ('a' + random.nextInt(26)));
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+    private static void runAll(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+    }
+
+    /*
+     * Every thread inserts all words in its own shuffled order (maximum overlap), while a reader keeps checking
+     * that words inserted before the race never disappear during the splits.
+     */
+    private static void stressTest(int threads, List<String> words) throws InterruptedException {
+        ConcurrentCompressedTrie trie = new ConcurrentCompressedTrie();
+        CompressedTrie reference = new CompressedTrie();
+        for (String word : words) reference.insert(word);
+
+        List<String> early = words.subList(0, words.size() / 10);
+        for (String word : early) trie.insert(word);
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong readerChecks = new AtomicLong();
+        Thread reader = new Thread(() -> {
+            long checks = 0;
+            while (!done.get()) {
+                for (String word : early) {
+                    check(trie.contains(word), "word vanished during a concurrent split: " + word);
+                    checks++;
+                }
+            }
+            readerChecks.set(checks);
+        });
+        reader.start();
+
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<String> order = new ArrayList<>(words);
+            Collections.shuffle(order, new Random(t));
+            writers.add(new Thread(() -> order.forEach(trie::insert)));
+        }
+        runAll(writers);
+        done.set(true);
+        reader.join();
+
+        Set<String> distinct = new HashSet<>(words);
+        List<String> enumerated = new ArrayList<>();
+        trie.forEachWord(enumerated::add);
+        check(enumerated.size() == distinct.size(), "enumerated " + enumerated.size() + " != " + distinct.size());
+        check(distinct.containsAll(enumerated), "enumerated a word that was never inserted");
+        List<String> sorted = new ArrayList<>(enumerated);
+        Collections.sort(sorted);
+        check(sorted.equals(enumerated), "enumeration out of order");
+
+        Random random = new Random(1);
+        int probes = 0;
+        for (String word : words) {
+            // The word itself, a proper prefix of it (usually not a word), and an extension.
+            String prefix = word.substring(0, random.nextInt(word.length()));
+            String longer = word + (char) ('a' + random.nextInt(26));
+            for (String probe : new String[]{word, prefix, longer}) {
+                check(trie.contains(probe) == reference.contains(probe), "contains(" + probe + ") differs");
+                probes++;
+            }
+            check(trie.startsWith(prefix), "startsWith(" + prefix + ")");
+        }
+        System.out.printf("stress test: %d threads x %d inserts, %d distinct words, %d probes and %d concurrent "
+                + "reads agree with CompressedTrie%n", threads, words.size(), distinct.size(), probes, readerChecks.get());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        CompressedTrie sample = new CompressedTrie();
+        ConcurrentCompressedTrie concurrent = new ConcurrentCompressedTrie();
+        for (String word : new String[]{"flower", "flowering", "flow", "flight"}) {
+            sample.insert(word);
+            concurrent.insert(word);
+        }
+        System.out.print("words:");
+        concurrent.forEachWord(word -> System.out.print(" " + word));
+        System.out.println();
+
+        stressTest(4, syllableWords(200_000, 42));
+
+        // Disjoint prefixes: thread t inserts only the words whose first character falls into its share.
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<String> words = syllableWords(2_000_000, 7);
+        System.out.printf("%ninsert %d words, disjoint first characters per thread (%d cores)%n", words.size(), cores);
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            CompressedTrie sequential = new CompressedTrie();
+            for (String word : words) sequential.insert(word);
+            long sequentialNanos = System.nanoTime() - start;
+            if (round == 1) System.out.printf("%-32s %7.0f ms%n", "CompressedTrie, 1 thread", sequentialNanos / 1e6);
+
+            for (int threads : new int[]{1, 2, 4, 8}) {
+                ConcurrentCompressedTrie trie = new ConcurrentCompressedTrie();
+                List<Thread> writers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int id = t;
+                    writers.add(new Thread(() -> {
+                        for (String word : words) {
+                            if (word.charAt(0) % threads == id) trie.insert(word);
+                        }
+                    }));
+                }
+                start = System.nanoTime();
+                runAll(writers);
+                long nanos = System.nanoTime() - start;
+                if (round == 1) {
+                    System.out.printf("%-32s %7.0f ms%n", "ConcurrentCompressedTrie, " + threads + " thr", nanos / 1e6);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package main.ds.tree.trie.massive.dataset;
+
+import java.lang.management.ManagementFactory;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Read-only, succinct form of a CompressedTrie in LOUDS (level-order unary degree sequence) encoding,
+ * produced by {@link CompressedTrie#freeze()}.
+ * <p>
+ * A CompressedTrie node costs a TrieNode, a HashMap with its table and entries, a boxed Character per child
+ * and a String for its part: well over 100 bytes. Here nodes are numbered in breadth-first order (root = 0)
+ * and the whole shape of the tree is one bit vector:
+ * <pre>
+ *      louds    : "10" for a virtual super-root, then for every node one 1 per child followed by a 0 (2n + 1 bits)
+ *      labels   : first character of the part leading to node i
+ *      terminal : bit i set if node i ends a word
+ *      hasTail  : bit i set if node i's part is longer than one character; the rest is in tailChars,
+ *                 at tailStart[rank1(hasTail, i)]
+ * </pre>
+ * The children of node i are the consecutive nodes rank1(start) .. rank1(start) + degree - 1, where
+ * start = select0(i + 1) + 1 is the position of its block of ones. So navigation needs just one rank and
+ * one select per level. Children are in label order, so a child is found by binary search on labels.
+ * <p>
+ * All arrays are held as NIO buffers: heap-built tries wrap plain arrays, and FrozenTrieFile maps the same
+ * layout straight from disk, so both are queried by the same code without a deserialization step.
+ *
+ * @Optimizations:
+ * @Rank-Select: one int of cumulative rank per 512 bits; select0 binary-searches those and finishes in the word.
+ * @Packed-Labels: labels and tails are flat char arrays, with no String or Character objects per node.
+ * @Memory: about 2 bits of shape, 2 bits of flags and 2 bytes of label per node, plus 4 bytes for each node that
+ * has a tail, plus the tail characters themselves.
+ */
+public class FrozenCompressedTrie {
+
+    /* Immutable bit vector with rank1 and select0. */
+    static final class BitVector {
+        private static final int WORDS_PER_BLOCK = 8; // 512 bits
+        final LongBuffer words;
+        final IntBuffer blockRanks; // ones before each block, plus the total
+        final int length;
+
+        BitVector(LongBuffer words, IntBuffer blockRanks, int length) {
+            this.words = words;
+            this.blockRanks = blockRanks;
+            this.length = length;
+        }
+
+        static BitVector of(long[] words, int length) {
+            int[] blockRanks = new int[(words.length + WORDS_PER_BLOCK - 1) / WORDS_PER_BLOCK + 1];
+            int ones = 0;
+            for (int w = 0; w < words.length; w++) {
+                if (w % WORDS_PER_BLOCK == 0) blockRanks[w / WORDS_PER_BLOCK] = ones;
+                ones += Long.bitCount(words[w]);
+            }
+            blockRanks[blockRanks.length - 1] = ones;
+            return new BitVector(LongBuffer.wrap(words), IntBuffer.wrap(blockRanks), length);
+        }
+
+        boolean get(int position) {
+            return (words.get(position >>> 6) & (1L << position)) != 0;
+        }
+
+        /* Ones in [0, position). */
+        int rank1(int position) {
+            int word = position >>> 6;
+            int block = word / WORDS_PER_BLOCK;
+            int rank = blockRanks.get(block);
+            for (int w = block * WORDS_PER_BLOCK; w < word; w++) rank += Long.bitCount(words.get(w));
+            if ((position & 63) != 0) rank += Long.bitCount(words.get(word) << (64 - (position & 63)));
+            return rank;
+        }
+
+        /* Position of the k-th zero, k >= 1. */
+        int select0(int k) {
+            int lo = 0, hi = blockRanks.capacity() - 2; // last block whose zeros-before is < k
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (mid * WORDS_PER_BLOCK * 64 - blockRanks.get(mid) < k) lo = mid; else hi = mid - 1;
+            }
+            int remaining = k - (lo * WORDS_PER_BLOCK * 64 - blockRanks.get(lo));
+            for (int w = lo * WORDS_PER_BLOCK; ; w++) {
+                long zeros = ~words.get(w);
+                int count = Long.bitCount(zeros);
+                if (remaining <= count) {
+                    for (int i = 1; i < remaining; i++) zeros &= zeros - 1;
+                    return (w << 6) + Long.numberOfTrailingZeros(zeros);
+                }
+                remaining -= count;
+            }
+        }
+
+        /* First zero at or after position (there is always one: the vector ends with a 0). */
+        int nextZero(int position) {
+            int w = position >>> 6;
+            long zeros = ~words.get(w) & (-1L << position);
+            while (zeros == 0) zeros = ~words.get(++w);
+            return (w << 6) + Long.numberOfTrailingZeros(zeros);
+        }
+
+        long bytes() {
+            return 8L * words.capacity() + 4L * blockRanks.capacity();
+        }
+    }
+
+    static final class BitVectorBuilder {
+        private long[] words = new long[16];
+        private int length;
+
+        void add(boolean bit) {
+            if (length >>> 6 == words.length) words = Arrays.copyOf(words, words.length * 2);
+            if (bit) words[length >>> 6] |= 1L << length;
+            length++;
+        }
+
+        BitVector build() {
+            return BitVector.of(Arrays.copyOf(words, (length >>> 6) + 1), length);
+        }
+    }
+
+    final BitVector louds;
+    final CharBuffer labels;
+    final BitVector terminal;
+    final BitVector hasTail;
+    final IntBuffer tailStart; // one entry per node with a tail, plus an end sentinel
+    final CharBuffer tailChars;
+    final int nodeCount;
+
+    FrozenCompressedTrie(BitVector louds, CharBuffer labels, BitVector terminal, BitVector hasTail,
+                         IntBuffer tailStart, CharBuffer tailChars) {
+        this.louds = louds;
+        this.labels = labels;
+        this.terminal = terminal;
+        this.hasTail = hasTail;
+        this.tailStart = tailStart;
+        this.tailChars = tailChars;
+        this.nodeCount = labels.capacity();
+    }
+
+    /**
+     * Breadth-first walk of the pointer trie with children in character order, emitting the LOUDS bits,
+     * labels, flags and tails in node order.
+     */
+    static FrozenCompressedTrie from(CompressedTrie trie) {
+        BitVectorBuilder louds = new BitVectorBuilder();
+        BitVectorBuilder terminal = new BitVectorBuilder();
+        BitVectorBuilder hasTail = new BitVectorBuilder();
+        StringBuilder labels = new StringBuilder();
+        StringBuilder tails = new StringBuilder();
+        List<Integer> tailStarts = new ArrayList<>();
+
+        louds.add(true); // super-root
+        louds.add(false);
+        ArrayDeque<CompressedTrie.TrieNode> queue = new ArrayDeque<>();
+        queue.add(trie.root);
+        while (!queue.isEmpty()) {
+            CompressedTrie.TrieNode node = queue.poll();
+            String part = node.part;
+            labels.append(part.isEmpty() ? '\0' : part.charAt(0)); // only the root has an empty part
+            terminal.add(node.isEndOfWord);
+            hasTail.add(part.length() > 1);
+            if (part.length() > 1) {
+                tailStarts.add(tails.length());
+                tails.append(part, 1, part.length());
+            }
+            // forEach rather than keySet(): keySet() would leave a cached view object in every HashMap.
+            List<CompressedTrie.TrieNode> children = new ArrayList<>(node.children.size());
+            node.children.forEach((c, child) -> children.add(child));
+            children.sort((x, y) -> Character.compare(x.part.charAt(0), y.part.charAt(0)));
+            for (CompressedTrie.TrieNode child : children) {
+                louds.add(true);
+                queue.add(child);
+            }
+            louds.add(false);
+        }
+        int[] tailStart = new int[tailStarts.size() + 1];
+        for (int i = 0; i < tailStarts.size(); i++) tailStart[i] = tailStarts.get(i);
+        tailStart[tailStarts.size()] = tails.length();
+
+        char[] labelArray = new char[labels.length()];
+        labels.getChars(0, labels.length(), labelArray, 0);
+        char[] tailArray = new char[tails.length()];
+        tails.getChars(0, tails.length(), tailArray, 0);
+        return new FrozenCompressedTrie(louds.build(), CharBuffer.wrap(labelArray), terminal.build(), hasTail.build(),
+                IntBuffer.wrap(tailStart), CharBuffer.wrap(tailArray));
+    }
+
+    /* Child of node whose part starts with c, or -1. */
+    int child(int node, char c) {
+        int start = louds.select0(node + 1) + 1;
+        int degree = louds.nextZero(start) - start;
+        if (degree == 0) return -1;
+        int first = louds.rank1(start);
+        int lo = first, hi = first + degree - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char label = labels.get(mid);
+            if (label < c) lo = mid + 1;
+            else if (label > c) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    int tailLength(int node) {
+        if (!hasTail.get(node)) return 0;
+        int t = hasTail.rank1(node);
+        return tailStart.get(t + 1) - tailStart.get(t);
+    }
+
+    /* Characters of node's tail that match text from offset: the full tail length if all of it matches. */
+    int matchTail(int node, String text, int offset) {
+        if (!hasTail.get(node)) return 0;
+        int t = hasTail.rank1(node);
+        int from = tailStart.get(t), to = tailStart.get(t + 1);
+        int j = 0;
+        while (from + j < to && offset + j < text.length() && tailChars.get(from + j) == text.charAt(offset + j)) j++;
+        return j;
+    }
+
+    public boolean contains(String word) {
+        int node = 0;
+        int i = 0;
+        while (i < word.length()) {
+            node = child(node, word.charAt(i));
+            if (node < 0) return false;
+            int tail = tailLength(node);
+            if (tail > 0 && matchTail(node, word, i + 1) != tail) return false;
+            i += 1 + tail;
+        }
+        return terminal.get(node);
+    }
+
+    /**
+     * Longest prefix of text that is a word in the trie (e.g. routing tables, tokenizers), or null if none.
+     */
+    public String longestPrefixOf(String text) {
+        int node = 0;
+        int i = 0;
+        int best = terminal.get(0) ? 0 : -1;
+        while (i < text.length()) {
+            node = child(node, text.charAt(i));
+            if (node < 0) break;
+            int tail = tailLength(node);
+            if (tail > 0 && matchTail(node, text, i + 1) != tail) break;
+            i += 1 + tail;
+            if (terminal.get(node)) best = i;
+        }
+        return best < 0 ? null : text.substring(0, best);
+    }
+
+    /**
+     * Visits every word that starts with prefix, in character order. The prefix may end in the middle of an edge.
+     */
+    public void forEachWithPrefix(String prefix, Consumer<String> action) {
+        int node = 0;
+        int i = 0;
+        StringBuilder word = new StringBuilder(prefix);
+        while (i < prefix.length()) {
+            node = child(node, prefix.charAt(i));
+            if (node < 0) return;
+            int tail = tailLength(node);
+            int matched = matchTail(node, prefix, i + 1);
+            if (i + 1 + matched == prefix.length()) { // prefix used up, possibly inside this edge
+                appendTail(node, matched, word);
+                break;
+            }
+            if (matched != tail) return;
+            i += 1 + tail;
+        }
+        collect(node, word, action);
+    }
+
+    private void appendTail(int node, int from, StringBuilder out) {
+        if (!hasTail.get(node)) return;
+        int t = hasTail.rank1(node);
+        out.append(tailChars, tailStart.get(t) + from, tailStart.get(t + 1));
+    }
+
+    private void collect(int node, StringBuilder word, Consumer<String> action) {
+        if (terminal.get(node)) action.accept(word.toString());
+        int start = louds.select0(node + 1) + 1;
+        int degree = louds.nextZero(start) - start;
+        int first = louds.rank1(start);
+        for (int child = first; child < first + degree; child++) {
+            int length = word.length();
+            word.append(labels.get(child));
+            appendTail(child, 0, word);
+            collect(child, word, action);
+            word.setLength(length);
+        }
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /* Bytes of the arrays behind this trie (object headers excluded). */
+    public long sizeInBytes() {
+        return louds.bytes() + terminal.bytes() + hasTail.bytes() + 2L * labels.capacity()
+                + 4L * tailStart.capacity() + 2L * tailChars.capacity();
+    }
+
+    // === Memory and lookup cost against the pointer trie ===
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) {
+        CompressedTrie small = new CompressedTrie();
+        for (String word : new String[]{"flow", "flower", "flowering", "flight", "fly", "a", "an", "and"}) {
+            small.insert(word);
+        }
+        FrozenCompressedTrie frozenSmall = small.freeze();
+        System.out.print("words with prefix \"flo\":");
+        frozenSmall.forEachWithPrefix("flo", word -> System.out.print(" " + word));
+        System.out.println();
+        System.out.println("longest prefix of \"flowerpot\": " + frozenSmall.longestPrefixOf("flowerpot"));
+        System.out.println("longest prefix of \"andromeda\": " + frozenSmall.longestPrefixOf("andromeda"));
+        System.out.println("contains(\"flowe\"): " + frozenSmall.contains("flowe"));
+
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        List<String> words = ConcurrentCompressedTrie.syllableWords(n, 42);
+
+        long before = usedHeap();
+        CompressedTrie trie = new CompressedTrie();
+        for (String word : words) trie.insert(word);
+        long pointerBytes = usedHeap() - before;
+
+        before = usedHeap();
+        FrozenCompressedTrie frozen = trie.freeze();
+        long frozenBytes = usedHeap() - before;
+
+        // Correctness against the pointer trie, on words and near-misses.
+        Random random = new Random(3);
+        String[] queries = new String[1 << 20];
+        for (int i = 0; i < queries.length; i++) {
+            String word = words.get(random.nextInt(n));
+            queries[i] = random.nextBoolean() ? word : word + (char) ('a' + random.nextInt(26));
+            if (frozen.contains(queries[i]) != trie.contains(queries[i])) {
+                throw new AssertionError("contains(" + queries[i] + ") differs");
+            }
+        }
+        long[] counts = new long[2];
+        frozen.forEachWithPrefix("", word -> counts[0]++);
+        if (counts[0] != words.stream().distinct().count()) throw new AssertionError("enumeration count");
+
+        System.out.printf("%n%d words (%d distinct), %d nodes%n", n, counts[0], frozen.nodeCount());
+        System.out.printf("%-22s %8.1f MB retained (%.1f bytes/node)%n", "CompressedTrie", pointerBytes / 1e6,
+                (double) pointerBytes / frozen.nodeCount());
+        System.out.printf("%-22s %8.1f MB retained (%.1f bytes/node; arrays %.1f MB)%n", "FrozenCompressedTrie",
+                frozenBytes / 1e6, (double) frozenBytes / frozen.nodeCount(), frozen.sizeInBytes() / 1e6);
+
+        for (int round = 0; round < 3; round++) {
+            int hits = 0;
+            long start = System.nanoTime();
+            for (String query : queries) if (trie.contains(query)) hits++;
+            long pointerNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (String query : queries) if (frozen.contains(query)) hits--;
+            long frozenNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (String query : queries) if (frozen.longestPrefixOf(query) != null) counts[1]++;
+            long prefixNanos = System.nanoTime() - start;
+            if (hits != 0) throw new AssertionError("hit counts differ");
+            if (round == 2) {
+                System.out.printf("%ncontains, ns/op: CompressedTrie %.0f, FrozenCompressedTrie %.0f%n",
+                        (double) pointerNanos / queries.length, (double) frozenNanos / queries.length);
+                System.out.printf("longestPrefixOf, ns/op: FrozenCompressedTrie %.0f%n",
+                        (double) prefixNanos / queries.length);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package main.ds.tree.trie.massive.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Flat binary file format for a FrozenCompressedTrie that is queried in place through memory mapping.
+ * <p>
+ * Rebuilding a CompressedTrie from the word list at every start takes minutes for a large dictionary. Instead
+ * the frozen trie is written once, with its rank directories included, and later processes map the file and
+ * answer queries from the mapped pages: nothing is parsed, copied or rebuilt, so opening costs a few system
+ * calls regardless of the trie's size. The mapping is read-only and shared, so every JVM on the host that maps
+ * the same file reads the same page-cache pages, and pages are only faulted in when a lookup touches them.
+ * <pre>
+ *      header   : magic "LOUDSTR1", version, node count, bit lengths of the three bit vectors,
+ *                 then (offset, byte length) of each of the nine sections
+ *      sections : louds words, louds ranks, terminal words, terminal ranks, hasTail words, hasTail ranks,
+ *                 labels, tailStart, tailChars - each 8-byte aligned
+ * </pre>
+ * All numbers are little-endian and offsets are relative to the start of the file, so the file can be copied
+ * or mapped at any address.
+ *
+ * @Limits: each section is mapped as its own buffer, so a single section must stay under 2 GB
+ * (about 1 billion labels or tail characters).
+ */
+public class FrozenTrieFile {
+
+    private static final long MAGIC = 0x315254534455_4F4CL; // "LOUDSTR1" read as a little-endian long
+    private static final int VERSION = 1;
+    private static final int SECTIONS = 9;
+    private static final int HEADER_BYTES = 8 + 4 * 5 + 16 * SECTIONS + 4; // padded to a multiple of 8
+
+    private FrozenTrieFile() {
+    }
+
+    public static void write(FrozenCompressedTrie trie, Path file) throws IOException {
+        ByteBuffer[] sections = {
+                bytesOf(trie.louds.words), bytesOf(trie.louds.blockRanks),
+                bytesOf(trie.terminal.words), bytesOf(trie.terminal.blockRanks),
+                bytesOf(trie.hasTail.words), bytesOf(trie.hasTail.blockRanks),
+                bytesOf(trie.labels), bytesOf(trie.tailStart), bytesOf(trie.tailChars)
+        };
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(MAGIC).putInt(VERSION).putInt(trie.nodeCount)
+                .putInt(trie.louds.length).putInt(trie.terminal.length).putInt(trie.hasTail.length);
+        long offset = HEADER_BYTES;
+        for (ByteBuffer section : sections) {
+            header.putLong(offset).putLong(section.remaining());
+            offset = align(offset + section.remaining());
+        }
+        header.clear();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header, 0);
+            offset = HEADER_BYTES;
+            for (ByteBuffer section : sections) {
+                long length = section.remaining();
+                writeFully(channel, section, offset);
+                offset = align(offset + length);
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Maps the file and returns a trie that reads directly from the mapped pages. The mappings stay valid
+     * after the channel is closed and are released when the trie becomes unreachable.
+     */
+    public static FrozenCompressedTrie map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getLong() != MAGIC) throw new IOException(file + " is not a frozen trie file");
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("Unsupported frozen trie version " + version);
+            header.getInt(); // node count, implied by the labels section
+            int loudsBits = header.getInt(), terminalBits = header.getInt(), hasTailBits = header.getInt();
+
+            ByteBuffer[] sections = new ByteBuffer[SECTIONS];
+            for (int i = 0; i < SECTIONS; i++) {
+                long offset = header.getLong(), length = header.getLong();
+                if (offset + length > channel.size()) throw new IOException(file + " is truncated");
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                sections[i] = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new FrozenCompressedTrie(
+                    new FrozenCompressedTrie.BitVector(sections[0].asLongBuffer(), sections[1].asIntBuffer(), loudsBits),
+                    sections[6].asCharBuffer(),
+                    new FrozenCompressedTrie.BitVector(sections[2].asLongBuffer(), sections[3].asIntBuffer(), terminalBits),
+                    new FrozenCompressedTrie.BitVector(sections[4].asLongBuffer(), sections[5].asIntBuffer(), hasTailBits),
+                    sections[7].asIntBuffer(), sections[8].asCharBuffer());
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static ByteBuffer bytesOf(LongBuffer values) {
+        ByteBuffer bytes = ByteBuffer.allocate(8 * values.capacity()).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asLongBuffer().put(values.duplicate().clear());
+        return bytes;
+    }
+
+    private static ByteBuffer bytesOf(IntBuffer values) {
+        ByteBuffer bytes = ByteBuffer.allocate(4 * values.capacity()).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asIntBuffer().put(values.duplicate().clear());
+        return bytes;
+    }
+
+    private static ByteBuffer bytesOf(CharBuffer values) {
+        ByteBuffer bytes = ByteBuffer.allocate(2 * values.capacity()).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asCharBuffer().put(values.duplicate().clear());
+        return bytes;
+    }
+
+    // === Cold start: rebuild from the word list vs. map the file ===
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        List<String> words = ConcurrentCompressedTrie.syllableWords(n, 42);
+        String probe = words.get(n / 2);
+
+        long start = System.nanoTime();
+        CompressedTrie trie = new CompressedTrie();
+        for (String word : words) trie.insert(word);
+        FrozenCompressedTrie frozen = trie.freeze();
+        boolean found = frozen.contains(probe);
+        long rebuildNanos = System.nanoTime() - start;
+
+        Path file = Files.createTempFile("frozen-trie", ".bin");
+        try {
+            start = System.nanoTime();
+            write(frozen, file);
+            long writeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            FrozenCompressedTrie mapped = map(file);
+            boolean mappedFound = mapped.contains(probe);
+            long mapNanos = System.nanoTime() - start;
+            if (!found || !mappedFound) throw new AssertionError("probe word not found");
+
+            for (String word : words.subList(0, Math.min(n, 200_000))) {
+                if (!mapped.contains(word)) throw new AssertionError("mapped trie is missing " + word);
+                if (mapped.contains(word + "#")) throw new AssertionError("mapped trie has " + word + "#");
+            }
+            long[] count = new long[2];
+            mapped.forEachWithPrefix("", word -> count[0]++);
+            frozen.forEachWithPrefix("", word -> count[1]++);
+            if (count[0] != count[1]) throw new AssertionError("enumeration differs");
+
+            System.out.printf("%d words, %d nodes, file %.1f MB (written in %.0f ms)%n", n, mapped.nodeCount(),
+                    Files.size(file) / 1e6, writeNanos / 1e6);
+            System.out.printf("%-36s %10.1f ms%n", "cold start, rebuild from word list", rebuildNanos / 1e6);
+            System.out.printf("%-36s %10.3f ms%n", "cold start, map file + first query", mapNanos / 1e6);
+
+            String[] queries = new String[1 << 20];
+            Random random = new Random(5);
+            for (int i = 0; i < queries.length; i++) queries[i] = words.get(random.nextInt(n));
+            for (int round = 0; round < 3; round++) {
+                long heapStart = System.nanoTime();
+                int hits = 0;
+                for (String query : queries) if (frozen.contains(query)) hits++;
+                long heapNanos = System.nanoTime() - heapStart;
+                long mappedStart = System.nanoTime();
+                for (String query : queries) if (mapped.contains(query)) hits--;
+                long mappedNanos = System.nanoTime() - mappedStart;
+                if (hits != 0) throw new AssertionError("hit counts differ");
+                if (round == 2) {
+                    System.out.printf("contains, ns/op: heap %.0f, mapped %.0f%n",
+                            (double) heapNanos / queries.length, (double) mappedNanos / queries.length);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package main.ds.tree.trie.massive.dataset;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 
 /**
@@ -8,61 +11,154 @@ import java.util.concurrent.*;
  * -
  * Parallel insertion in a CompressedTrie can be achieved by using a divide-and-conquer approach.
  * Partition the Dataset:
- *      Divide the list of strings into smaller subsets that can be processed independently.
+ *      Split the words by their first character. Words with different first characters end up under
+ *      different children of the root and never share a node below it.
  * Concurrent Processing:
- *      Use Java's ForkJoinPool or ExecutorService to parallelize the insertion process for each subset.
- * Merge Tries:
- *      After parallel insertion, each subset will have its own CompressedTrie.
- *      These tries can be merged by iteratively inserting one trie into another.
+ *      Each first character's words are inserted by one task. The tasks run on a pool shared by all
+ *      builds, so no ForkJoinPool is created per call.
+ * Attach Subtrees:
+ *      A task whose character has no subtree yet builds it in a private CompressedTrie. The calling thread
+ *      then hangs that trie's only child under the root. A task whose character already has a subtree
+ *      inserts into it directly: insert only reads root.children, and it only changes nodes inside that
+ *      subtree. No merge is needed, so no words can be lost in one.
+ * -
+ * Skew: the parallelism is at most the number of distinct first characters, and the largest bucket
+ * (e.g. 's' in English) bounds the build time.
  */
 public class ParallelCompressedTrie extends CompressedTrie {
 
-    private static final int THRESHOLD = 100;  // Define the threshold for splitting tasks
+    private static final int CHUNK = 1 << 16; // words per partitioning task
+    private static final ForkJoinPool SHARED_POOL = ForkJoinPool.commonPool();
 
-    public void parallelInsert(List<String> words) {
-        ForkJoinPool forkJoinPool = new ForkJoinPool();
-        forkJoinPool.invoke(new InsertTask(words, this));
+    private final ForkJoinPool pool;
+
+    public ParallelCompressedTrie() {
+        this(SHARED_POOL);
     }
 
-    private class InsertTask extends RecursiveAction {
-        private final List<String> words;
-        private final CompressedTrie trie;
+    /* Builds on the given pool, e.g. to measure build time against the number of workers. */
+    public ParallelCompressedTrie(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public void parallelInsert(List<String> words) {
+        // Partition in parallel: each chunk buckets its words by first character.
+        List<Map<Character, List<String>>> chunkBuckets = pool.submit(() -> {
+            List<ForkJoinTask<Map<Character, List<String>>>> tasks = new ArrayList<>();
+            for (int from = 0; from < words.size(); from += CHUNK) {
+                List<String> chunk = words.subList(from, Math.min(words.size(), from + CHUNK));
+                tasks.add(ForkJoinTask.adapt(() -> bucketByFirstChar(chunk)).fork());
+            }
+            List<Map<Character, List<String>>> buckets = new ArrayList<>(tasks.size());
+            for (ForkJoinTask<Map<Character, List<String>>> task : tasks) {
+                buckets.add(task.join());
+            }
+            return buckets;
+        }).join();
 
-        InsertTask(List<String> words, CompressedTrie trie) {
-            this.words = words;
-            this.trie = trie;
+        Map<Character, List<List<String>>> byFirstChar = new HashMap<>();
+        for (Map<Character, List<String>> buckets : chunkBuckets) {
+            for (Map.Entry<Character, List<String>> bucket : buckets.entrySet()) {
+                if (bucket.getKey() == null) {
+                    root.isEndOfWord = true; // the empty word
+                    continue;
+                }
+                byFirstChar.computeIfAbsent(bucket.getKey(), c -> new ArrayList<>()).add(bucket.getValue());
+            }
         }
 
-        @Override
-        protected void compute() {
-            if (words.size() <= THRESHOLD) {
-                // Insert words sequentially if below threshold
-                for (String word : words) {
-                    trie.insert(word);
+        // One task per first character; new subtrees are attached by this thread after all tasks finish.
+        List<ForkJoinTask<CompressedTrie>> tasks = new ArrayList<>();
+        List<Character> newSubtrees = new ArrayList<>();
+        for (Map.Entry<Character, List<List<String>>> entry : byFirstChar.entrySet()) {
+            List<List<String>> parts = entry.getValue();
+            boolean exists = root.children.containsKey(entry.getKey());
+            CompressedTrie target = exists ? this : new CompressedTrie();
+            if (!exists) newSubtrees.add(entry.getKey());
+            tasks.add(pool.submit(() -> {
+                for (List<String> part : parts) {
+                    for (String word : part) {
+                        target.insert(word);
+                    }
                 }
-            } else {
-                // Split the task into smaller tasks
-                int mid = words.size() / 2;
-                List<String> leftWords = words.subList(0, mid);
-                List<String> rightWords = words.subList(mid, words.size());
+                return target;
+            }));
+        }
+        for (int i = 0, attached = 0; i < tasks.size(); i++) {
+            CompressedTrie subtrie = tasks.get(i).join();
+            if (subtrie != this) {
+                char first = newSubtrees.get(attached++);
+                root.children.put(first, subtrie.root.children.get(first));
+            }
+        }
+    }
+
+    /* Null key collects empty strings. */
+    private static Map<Character, List<String>> bucketByFirstChar(List<String> words) {
+        Map<Character, List<String>> buckets = new HashMap<>();
+        for (String word : words) {
+            Character first = word.isEmpty() ? null : word.charAt(0);
+            buckets.computeIfAbsent(first, c -> new ArrayList<>()).add(word);
+        }
+        return buckets;
+    }
 
-                // Create two subtasks
-                InsertTask leftTask = new InsertTask(leftWords, new CompressedTrie());
-                InsertTask rightTask = new InsertTask(rightWords, new CompressedTrie());
+    /**
+     * Two tries are equal if the same edges (part, end-of-word flag) hang under the same characters.
+     * For a given set of words the compressed trie is unique, so this compares the sets of words.
+     */
+    static boolean sameStructure(TrieNode a, TrieNode b) {
+        if (!a.part.equals(b.part) || a.isEndOfWord != b.isEndOfWord || !a.children.keySet().equals(b.children.keySet())) {
+            return false;
+        }
+        for (Map.Entry<Character, TrieNode> child : a.children.entrySet()) {
+            if (!sameStructure(child.getValue(), b.children.get(child.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-                // Fork subtasks
-                invokeAll(leftTask, rightTask);
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 3_000_000;
+        List<String> words = ConcurrentCompressedTrie.syllableWords(n, 42);
 
-                // Merge the results
-                mergeTries(leftTask.trie, rightTask.trie);
+        CompressedTrie sequential = null;
+        long sequentialNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            sequential = new CompressedTrie();
+            for (String word : words) {
+                sequential.insert(word);
             }
+            sequentialNanos = Math.min(sequentialNanos, System.nanoTime() - start);
+        }
+
+        // Two batches into the same trie: the second one also exercises inserting into existing subtrees.
+        ParallelCompressedTrie parallel = new ParallelCompressedTrie();
+        parallel.parallelInsert(words.subList(0, n / 2));
+        parallel.parallelInsert(words.subList(n / 2, n));
+        if (!sameStructure(sequential.root, parallel.root)) {
+            throw new AssertionError("parallel build differs from sequential insert");
+        }
+        for (String word : words) {
+            if (!parallel.contains(word)) throw new AssertionError("missing " + word);
         }
+        System.out.printf("correctness: parallel build of %d words is identical to sequential insert%n", n);
 
-        // Merge two tries by inserting one into the other
-        private void mergeTries(CompressedTrie trie1, CompressedTrie trie2) {
-            for (TrieNode child : trie2.root.children.values()) {
-                trie1.insert(child.part);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%nbuild time for %d words (%d cores)%n%-22s %8.0f ms (best of 3)%n", n, cores,
+                "sequential insert", sequentialNanos / 1e6);
+        for (int workers = 1; workers <= Math.max(8, 2 * cores); workers *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                new ParallelCompressedTrie(pool).parallelInsert(words);
+                best = Math.min(best, System.nanoTime() - start);
             }
+            pool.shutdown();
+            System.out.printf("%-22s %8.0f ms (best of 3)%n", "parallel, " + workers + " workers", best / 1e6);
         }
     }
 }